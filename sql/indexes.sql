@@ -0,0 +1,27 @@
+-- Secondary indexes for the client_schedule database.
+-- Run once against an existing schema: mysql -u sqlUser -p client_schedule < sql/indexes.sql
+
+-- Weekly/monthly filters: AppointmentDAO.getAppointmentsBetween (Start >= ? AND Start < ?)
+-- Also serves the keyset pages of AppointmentDAO.getAppointmentsPage (ORDER BY Start, Appointment_ID):
+-- InnoDB appends the primary key to every secondary index, so this is an index on (Start, Appointment_ID).
+CREATE INDEX idx_appointments_start ON appointments (Start);
+
+-- Overlap checks: AppointmentDAO.getConflictingAppointmentIds (Customer_ID = ? AND Start < ? AND End > ?)
+CREATE INDEX idx_appointments_customer_start_end ON appointments (Customer_ID, Start, End);
+
+-- Sorted keyset pages: AppointmentDAO.getAppointmentsPage (ORDER BY <column>, Appointment_ID) and
+-- CustomerDAO.getCustomersPage (ORDER BY <column>, Customer_ID), one index per column in AppointmentSort and
+-- CustomerSort. Like the Start index above, each is an index on (<column>, primary key). Customer_ID, Contact_ID
+-- and User_ID are covered by their foreign key indexes, Start above, and Last_Update by sql/sync.sql.
+CREATE INDEX idx_appointments_title ON appointments (Title);
+CREATE INDEX idx_appointments_description ON appointments (Description);
+CREATE INDEX idx_appointments_location ON appointments (Location);
+CREATE INDEX idx_appointments_type ON appointments (Type);
+CREATE INDEX idx_appointments_end ON appointments (End);
+CREATE INDEX idx_customers_name ON customers (Customer_Name);
+CREATE INDEX idx_customers_address ON customers (Address);
+CREATE INDEX idx_customers_postal_code ON customers (Postal_Code);
+CREATE INDEX idx_customers_phone ON customers (Phone);
+CREATE INDEX idx_customers_create_date ON customers (Create_Date);
+CREATE INDEX idx_customers_created_by ON customers (Created_By);
+CREATE INDEX idx_customers_last_updated_by ON customers (Last_Updated_By);
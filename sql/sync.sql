@@ -0,0 +1,22 @@
+-- Change tracking for the client_schedule database, used by DeltaSync to pick up other workstations' writes.
+-- Run once against an existing schema: mysql -u sqlUser -p client_schedule < sql/sync.sql
+
+-- Changed-since queries: AppointmentDAO.getAppointmentsChangedSince / CustomerDAO.getCustomersChangedSince
+-- (Last_Update >= ?). The DAOs stamp Last_Update with the server's UTC_TIMESTAMP() on every write.
+CREATE INDEX idx_appointments_last_update ON appointments (Last_Update);
+CREATE INDEX idx_customers_last_update ON customers (Last_Update);
+
+-- Tombstones: one row per deleted appointment or customer, so deletes can be read as a delta too.
+-- DeltaSync purges tombstones older than a day.
+CREATE TABLE deleted_rows (
+    Table_Name VARCHAR(64) NOT NULL,
+    Row_ID INT NOT NULL,
+    Deleted_At DATETIME NOT NULL,
+    INDEX idx_deleted_rows_deleted_at (Deleted_At, Table_Name)
+);
+
+CREATE TRIGGER appointments_tombstone AFTER DELETE ON appointments
+    FOR EACH ROW INSERT INTO deleted_rows (Table_Name, Row_ID, Deleted_At) VALUES ('appointments', OLD.Appointment_ID, UTC_TIMESTAMP());
+
+CREATE TRIGGER customers_tombstone AFTER DELETE ON customers
+    FOR EACH ROW INSERT INTO deleted_rows (Table_Name, Row_ID, Deleted_At) VALUES ('customers', OLD.Customer_ID, UTC_TIMESTAMP());
@@ -1,17 +1,16 @@
 package com.example.c195_project;
 
+import com.example.c195_project.helper.BackgroundTasks;
 import com.example.c195_project.helper.JDBC;
+import com.example.c195_project.helper.SceneRegistry;
+import com.example.c195_project.dao.DeltaSync;
 import com.example.c195_project.dao.UserDAO;
 
 import com.example.c195_project.controller.LoginController;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.Locale;
-import java.util.ResourceBundle;
 import java.util.logging.Logger;
 
 /**
@@ -37,13 +36,7 @@ public class Main extends Application {
         db = new JDBC();  // initialize the database connection
         db.openConnection();
 
-        ResourceBundle bundle = ResourceBundle.getBundle("com.example.c195_project.Login", Locale.getDefault());
-        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/com/example/c195_project/login.fxml"), bundle);
-
-        Scene scene = new Scene(fxmlLoader.load(), 500, 400);
-        stage.setTitle("Login");
-        stage.setScene(scene);
-        stage.show();
+        SceneRegistry.show(stage, SceneRegistry.LOGIN_FXML, "Login", 500, 400);
     }
 
     /**
@@ -51,6 +44,8 @@ public class Main extends Application {
      */
     @Override
     public void stop() {
+        DeltaSync.stop();  // stop polling for other workstations' changes
+        BackgroundTasks.shutdown();  // stop the database worker threads
         db.closeConnection();  // close the database connection
     }
 
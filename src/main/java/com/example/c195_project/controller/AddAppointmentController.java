@@ -2,12 +2,11 @@ package com.example.c195_project.controller;
 
 import com.example.c195_project.dao.AppointmentDAO;
 import com.example.c195_project.helper.Helper;
+import com.example.c195_project.helper.SceneRegistry;
+import com.example.c195_project.helper.TaskGroup;
 import com.example.c195_project.model.Appointment;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
@@ -25,13 +24,13 @@ import java.util.logging.Logger;
 /**
  * Controller class responsible for handling the "Add Appointment" UI functionality.
  */
-public class AddAppointmentController {
+public class AddAppointmentController implements SceneRegistry.Reusable {
 
     private static final Logger LOGGER = Logger.getLogger(AddAppointmentController.class.getName());
 
-    private static final String MAIN_WINDOW_FXML = "/com/example/c195_project/MainWindow.fxml";
-    private static final String STYLESHEET_CSS = "/com/example/c195_project/stylesheet.css";
+    private static final String MAIN_MENU_TITLE = "Main Menu";
     private static final String TIME_PATTERN = "HH:mm";
+    private static final String PENDING_ID_TEXT = "Pending";
     private static final int TIME_SLOT_INTERVAL = 15;
     private static final String SAVE_FAILURE_MESSAGE = "Failed to add appointment.";
     private static final String TIME_SLOT_CONFLICT_MESSAGE = "Appointment overlaps with an existing appointment for the customer.";
@@ -63,17 +62,18 @@ public class AddAppointmentController {
     @FXML
     private DatePicker addAppEndDPick;
 
+    @FXML
+    private Button addAppSaveBtn;
+
     private AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final TaskGroup tasks = new TaskGroup();
 
     /**
-     * Initializes the view by setting up combo boxes, default values, and event listeners.
+     * Initializes the view by setting up the time slots and event listeners. The form is kept alive between
+     * visits, so everything that depends on the data is filled in by {@link #onShow()}.
      */
     public void initialize() {
-        cancelBtn.setOnAction(e -> loadFXMLScene(MAIN_WINDOW_FXML));
-
-        addAppContactCBox.setItems(FXCollections.observableArrayList(Helper.getAllContactNames()));
-        addAppCustIdCBox.setItems(FXCollections.observableArrayList(getSortedCustomerIds()));
-        addAppUserIdCBox.setItems(FXCollections.observableArrayList(getSortedUserIds()));
+        cancelBtn.setOnAction(e -> goToMainWindow());
 
         // Define the Eastern Standard Time zone
         ZoneId estZone = ZoneId.of("America/New_York");
@@ -94,16 +94,47 @@ public class AddAppointmentController {
         addAppEndCBox.setItems(FXCollections.observableArrayList(timeSlots));
 
 
-        addAppIdTxt.setText(Integer.toString(appointmentDAO.getNextAppointmentId()));
         disableAndGreyOutTextField(addAppIdTxt);
     }
 
+    /**
+     * Clears what the previous visit entered and reloads the choices, which may have changed since, such as
+     * the IDs of customers added in the meantime.
+     */
+    @Override
+    public void onShow() {
+        // The ID is assigned by the database when the appointment is saved
+        addAppIdTxt.setText(PENDING_ID_TEXT);
+        addAppTitleTxt.clear();
+        addAppTypeTxt.clear();
+        addAppDescriptionTxt.clear();
+        addAppLocationTxt.clear();
+        addAppContactCBox.setValue(null);
+        addAppCustIdCBox.setValue(null);
+        addAppUserIdCBox.setValue(null);
+        addAppStartCBox.setValue(null);
+        addAppEndCBox.setValue(null);
+        addAppStartDPick.setValue(null);
+        addAppEndDPick.setValue(null);
+        addAppSaveBtn.setDisable(false);
+
+        tasks.submit(Helper::getAllContactNames, contactNames -> addAppContactCBox.setItems(FXCollections.observableArrayList(contactNames)));
+        tasks.submit(this::getSortedCustomerIds, customerIds -> addAppCustIdCBox.setItems(FXCollections.observableArrayList(customerIds)));
+        tasks.submit(this::getSortedUserIds, userIds -> addAppUserIdCBox.setItems(FXCollections.observableArrayList(userIds)));
+    }
+
     /**
      * Navigates the user back to the main window.
      */
     @FXML
     private void goToMainWindow() {
-        loadFXMLScene(MAIN_WINDOW_FXML);
+        tasks.cancelAll();
+        try {
+            Stage stage = (Stage) cancelBtn.getScene().getWindow();
+            SceneRegistry.show(stage, SceneRegistry.MAIN_WINDOW_FXML, MAIN_MENU_TITLE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -146,22 +177,53 @@ public class AddAppointmentController {
         }
 
         // Existing checks
-        if (!Helper.getAllContactNames().contains(addAppContactCBox.getValue())) {
+        if (!addAppContactCBox.getItems().contains(addAppContactCBox.getValue())) {
             Helper.showAlert("Invalid contact name");
             return;
         }
 
         Appointment newAppointment = createNewAppointment();
 
-        if (appointmentDAO.isTimeSlotFree(newAppointment.getCustomerId(), newAppointment.getStart(), newAppointment.getEnd(), null)) {
-            if (appointmentDAO.addAppointment(newAppointment)) {
-                loadFXMLScene(MAIN_WINDOW_FXML);
-            } else {
-                Helper.showAlert(SAVE_FAILURE_MESSAGE);
+        // Check the slot and save in the background, keeping the button disabled until the outcome is known
+        addAppSaveBtn.setDisable(true);
+        tasks.submit(() -> appointmentDAO.findCollisions(newAppointment.getCustomerId(), newAppointment.getStart(), newAppointment.getEnd(), null), collisions -> {
+            if (!collisions.isEmpty()) {
+                addAppSaveBtn.setDisable(false);
+                Helper.showAlert(Helper.describeCollisions(TIME_SLOT_CONFLICT_MESSAGE, collisions));
+                return;
             }
-        } else {
-            Helper.showAlert(TIME_SLOT_CONFLICT_MESSAGE);
-        }
+            tasks.submit(() -> appointmentDAO.addAppointment(newAppointment), added -> {
+                if (added) {
+                    goToMainWindow();
+                } else {
+                    saveRefused(newAppointment);
+                }
+            }, this::saveFailed);
+        }, this::saveFailed);
+    }
+
+    /**
+     * Re-enables saving after the appointment was not saved, explaining the overlap if the slot was booked from
+     * another workstation after it was checked, which the save's own check against the database catches.
+     *
+     * @param appointment the appointment that was not saved.
+     */
+    private void saveRefused(Appointment appointment) {
+        tasks.submit(() -> appointmentDAO.findCollisions(appointment.getCustomerId(), appointment.getStart(), appointment.getEnd(), null), collisions -> {
+            addAppSaveBtn.setDisable(false);
+            Helper.showAlert(collisions.isEmpty() ? SAVE_FAILURE_MESSAGE : Helper.describeCollisions(TIME_SLOT_CONFLICT_MESSAGE, collisions));
+        }, this::saveFailed);
+    }
+
+    /**
+     * Re-enables saving and reports an error thrown while saving.
+     *
+     * @param error the error.
+     */
+    private void saveFailed(Throwable error) {
+        addAppSaveBtn.setDisable(false);
+        error.printStackTrace();
+        Helper.showAlert(SAVE_FAILURE_MESSAGE);
     }
 
 
@@ -209,7 +271,6 @@ public class AddAppointmentController {
      * @return An instance of the Appointment class.
      */
     private Appointment createNewAppointment() {
-        int id = Integer.parseInt(addAppIdTxt.getText());
         String title = addAppTitleTxt.getText();
         String type = addAppTypeTxt.getText();
         String description = addAppDescriptionTxt.getText();
@@ -223,7 +284,7 @@ public class AddAppointmentController {
         int contactId = Helper.getContactId(addAppContactCBox.getValue());
 
         // Create a new Appointment object with the local times
-        return new Appointment(id, title, description, location, type, startDateTime, endDateTime, LocalDateTime.now(), "system", LocalDateTime.now(), "system", customerId, userId, contactId);
+        return new Appointment(0, title, description, location, type, startDateTime, endDateTime, LocalDateTime.now(), "system", LocalDateTime.now(), "system", customerId, userId, contactId);
     }
 
     /**
@@ -245,24 +306,4 @@ public class AddAppointmentController {
         textField.setDisable(true);
         textField.setStyle("-fx-text-fill: grey;");
     }
-
-    /**
-     * Loads a new FXML scene.
-     * @param fxmlPath Path to the FXML file to be loaded.
-     */
-    private void loadFXMLScene(String fxmlPath) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent sceneRoot = loader.load();
-            Scene scene = new Scene(sceneRoot);
-            scene.getStylesheets().add(getClass().getResource(STYLESHEET_CSS).toExternalForm());
-
-            Stage stage = (Stage) cancelBtn.getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
-            stage.setTitle("Main Menu");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
 }
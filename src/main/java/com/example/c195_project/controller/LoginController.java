@@ -1,14 +1,17 @@
 package com.example.c195_project.controller;
 
+import com.example.c195_project.dao.DeltaSync;
+import com.example.c195_project.helper.Helper;
 import com.example.c195_project.helper.JDBC;
+import com.example.c195_project.helper.ReferenceDataCache;
+import com.example.c195_project.helper.SceneRegistry;
+import com.example.c195_project.helper.TaskGroup;
 import com.example.c195_project.helper.UserSession;  // Import UserSession class
 import com.example.c195_project.model.Appointment;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
@@ -19,6 +22,7 @@ import java.time.format.DateTimeFormatter;
 
 
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -47,6 +51,8 @@ public class LoginController {
     @FXML
     private Button loginBtn;
 
+    private final TaskGroup tasks = new TaskGroup();
+
     /**
      * Logger instance to log login activity.
      */
@@ -79,8 +85,9 @@ public class LoginController {
     }
 
     /**
-     * Handles the login action. Validates the user credentials and logs the user in.
-     * Also checks if there are any appointments within the next 15 minutes and notifies the user.
+     * Handles the login action. Validates the user credentials in the background and logs the user in.
+     * The reference data the forms need is loaded in the same background step, so the main window opens warm.
+     * Once logged in, checks if there are any appointments within the next 15 minutes and notifies the user.
      *
      * @param event the ActionEvent that triggered this method.
      */
@@ -88,51 +95,88 @@ public class LoginController {
     private void handleLogin(ActionEvent event) {
         String username = usernameField.getText();
         String password = passwordField.getText();
+        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-        if (checkCredentials(username, password)) {
+        loginBtn.setDisable(true);
+        tasks.submit(() -> {
+            boolean valid = checkCredentials(username, password);
+            if (valid) {
+                ReferenceDataCache.getAllContactNames();
+                ReferenceDataCache.getAllCustomerIds();
+            }
+            return valid;
+        }, valid -> {
+            if (!valid) {
+                loginBtn.setDisable(false);
+                LOGGER.info("User login failed. User: " + username + ", Time: " + LocalDateTime.now().format(formatter));
+                showIncorrectCredentialsAlert();
+                return;
+            }
+
             UserSession.initInstance(username);  // Initialize user session with username
 
             LOGGER.info("User login successful. User: " + username + ", Time: " + LocalDateTime.now().format(formatter));
 
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/c195_project/MainWindow.fxml"));
-
-                Parent root = loader.load();
+            // Pick up other workstations' changes from now on; the main window loads everything before that
+            DeltaSync.start();
 
-                Scene scene = new Scene(root);
-                scene.getStylesheets().add(getClass().getResource("/com/example/c195_project/stylesheet.css").toExternalForm());
-
-                Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-                stage.setScene(scene);
+            try {
+                SceneRegistry.show(stage, SceneRegistry.MAIN_WINDOW_FXML, "Main Menu");
                 stage.centerOnScreen();
-                stage.show();
-                stage.setTitle("Main Menu");
-
-                // Check for appointment within the next 15 minutes
-                Appointment nextAppointment = getNextAppointmentWithin15Minutes(username);
-                if (nextAppointment != null) {
-                    String formattedStartTime = formatter.format(nextAppointment.getStart());
-                    Alert alert = new Alert(AlertType.INFORMATION);
-                    alert.setTitle("Upcoming Appointment");
-                    alert.setHeaderText(null);
-                    alert.setContentText("You have an appointment within the next 15 minutes. Appointment ID: " + nextAppointment.getId() + ", Date and time: " + formattedStartTime);
-                    alert.showAndWait();
-                } else {
-                    Alert alert = new Alert(AlertType.INFORMATION);
-                    alert.setTitle("No Upcoming Appointments");
-                    alert.setHeaderText(null);
-                    alert.setContentText("You have no appointments within the next 15 minutes.");
-                    alert.showAndWait();
-                }
-
             } catch (IOException e) {
                 e.printStackTrace();
+                return;
             }
+
+            // Build the forms once the main window is up, so opening them later does not parse any FXML
+            Platform.runLater(() -> SceneRegistry.preload(SceneRegistry.ADD_APPOINTMENT_FXML,
+                    SceneRegistry.UPDATE_APPOINTMENT_FXML, SceneRegistry.ADD_CUSTOMER_FXML,
+                    SceneRegistry.UPDATE_CUSTOMER_FXML));
+
+            // Check for appointment within the next 15 minutes
+            tasks.submit(() -> getNextAppointmentWithin15Minutes(username), nextAppointment -> showUpcomingAppointmentAlert(nextAppointment, formatter));
+        }, error -> {
+            loginBtn.setDisable(false);
+            error.printStackTrace();
+            Helper.showAlert("Error: " + error.getMessage());
+        });
+    }
+
+    /**
+     * Tells the user that the entered username or password is wrong, in the user's language.
+     */
+    private void showIncorrectCredentialsAlert() {
+        ResourceBundle rb = ResourceBundle.getBundle("com.example.c195_project.Login", Locale.getDefault());
+
+        Alert alert = new Alert(AlertType.ERROR);
+        alert.setTitle(rb.getString("errorTitle"));
+        alert.setHeaderText(null);
+        alert.setContentText(rb.getString("incorrectCredentials"));
+        alert.showAndWait();
+    }
+
+    /**
+     * Tells the user whether an appointment starts within the next 15 minutes.
+     *
+     * @param nextAppointment the appointment starting within the next 15 minutes, or null if there is none.
+     * @param formatter       the formatter for the appointment's start time.
+     */
+    private void showUpcomingAppointmentAlert(Appointment nextAppointment, DateTimeFormatter formatter) {
+        if (nextAppointment != null) {
+            String formattedStartTime = formatter.format(nextAppointment.getStart());
+            Alert alert = new Alert(AlertType.INFORMATION);
+            alert.setTitle("Upcoming Appointment");
+            alert.setHeaderText(null);
+            alert.setContentText("You have an appointment within the next 15 minutes. Appointment ID: " + nextAppointment.getId() + ", Date and time: " + formattedStartTime);
+            alert.showAndWait();
         } else {
-            LOGGER.info("User login failed. User: " + username + ", Time: " + LocalDateTime.now().format(formatter));
-            // Handle failed login attempt here...
+            Alert alert = new Alert(AlertType.INFORMATION);
+            alert.setTitle("No Upcoming Appointments");
+            alert.setHeaderText(null);
+            alert.setContentText("You have no appointments within the next 15 minutes.");
+            alert.showAndWait();
         }
     }
 
@@ -142,31 +186,19 @@ public class LoginController {
      * @param username the entered username.
      * @param password the entered password.
      * @return true if the credentials are valid, false otherwise.
+     * @throws SQLException if a database error occurs.
      */
-    private boolean checkCredentials(String username, String password) {
+    private boolean checkCredentials(String username, String password) throws SQLException {
         String query = "SELECT * FROM users WHERE User_Name = ? AND Password = ?";
 
-        try (PreparedStatement preparedStatement = JDBC.getConnection().prepareStatement(query)) {
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
             preparedStatement.setString(1, username);
             preparedStatement.setString(2, password);
 
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return true;
-                } else {
-                    ResourceBundle rb = ResourceBundle.getBundle("com.example.c195_project.Login", Locale.getDefault());
-
-                    Alert alert = new Alert(AlertType.ERROR);
-                    alert.setTitle(rb.getString("errorTitle"));
-                    alert.setHeaderText(null);
-                    alert.setContentText(rb.getString("incorrectCredentials"));
-                    alert.showAndWait();
-                    return false;
-                }
+                return resultSet.next();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
         }
     }
 
@@ -184,7 +216,8 @@ public class LoginController {
                 "ORDER BY appointments.Start ASC " +
                 "LIMIT 1";
 
-        try (PreparedStatement preparedStatement = JDBC.getConnection().prepareStatement(query)) {
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query)) {
             preparedStatement.setString(1, username);
             ResultSet resultSet = preparedStatement.executeQuery();
 
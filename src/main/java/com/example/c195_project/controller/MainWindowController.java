@@ -1,34 +1,42 @@
 package com.example.c195_project.controller;
 
 import com.example.c195_project.dao.AppointmentDAO;
+import com.example.c195_project.dao.AppointmentSort;
 import com.example.c195_project.dao.CustomerDAO;
+import com.example.c195_project.dao.CustomerSort;
+import com.example.c195_project.dao.DataChange;
+import com.example.c195_project.dao.DataChangeBus;
+import com.example.c195_project.dao.DeltaSync;
 import com.example.c195_project.helper.Helper;
+import com.example.c195_project.helper.SceneRegistry;
+import com.example.c195_project.helper.TablePager;
+import com.example.c195_project.helper.TaskGroup;
 import com.example.c195_project.model.Appointment;
 import com.example.c195_project.model.Customer;
 import com.example.c195_project.model.CustomerReport;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.sql.SQLException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 /**
  * The MainWindowController class manages the primary user interface of the application.
@@ -39,6 +47,8 @@ import java.util.logging.Logger;
 public class MainWindowController {
 
     private static final Logger LOGGER = Logger.getLogger(MainWindowController.class.getName());
+    // The customers' audit timestamps are shown to the second, as they are stored
+    private static final DateTimeFormatter AUDIT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     // FXML-annotated fields for GUI components
     @FXML
     private Tab reportsTab;
@@ -99,11 +109,11 @@ public class MainWindowController {
     @FXML
     private TableColumn<Customer, String> phoneColumn;
     @FXML
-    private TableColumn<Customer, String> createdDateColumn;
+    private TableColumn<Customer, LocalDateTime> createdDateColumn;
     @FXML
     private TableColumn<Customer, String> createdByColumn;
     @FXML
-    private TableColumn<Customer, String> lastUpdateColumn;
+    private TableColumn<Customer, LocalDateTime> lastUpdateColumn;
     @FXML
     private TableColumn<Customer, String> lastUpdatedByColumn;
     @FXML
@@ -150,19 +160,50 @@ public class MainWindowController {
     private TableColumn<Appointment, Integer> r2CustomerIdColumn;
     @FXML
     private ComboBox<String> reportContactCBox;
+    @FXML
+    private ProgressIndicator loadingIndicator;
 
 
     private AppointmentDAO appointmentDAO = new AppointmentDAO();
     private CustomerDAO customerDAO = new CustomerDAO();
 
+    // Database work runs in the background; the indicator spins while any of it is pending
+    private final TaskGroup tasks = new TaskGroup();
+    private Future<?> scheduleLoad;
+    private boolean reportsLoaded;
+    private boolean reportsReloadPending;
+
+    // The tables are fetched a page at a time as the user scrolls
+    private TablePager<Appointment> appointmentsPager;
+    private TablePager<Customer> customersPager;
+
+    // Which appointments the table shows, so a written appointment can be merged without reloading the table
+    private Predicate<Appointment> appointmentFilter = appointment -> true;
+    private LocalDateTime appointmentsFrom;
+    private LocalDateTime appointmentsTo;
+
+    // The tables are sorted by the database; clicking a column header reloads the table in the new order
+    private Map<TableColumn<Appointment, ?>, AppointmentSort> appointmentSorts;
+    private Map<TableColumn<Customer, ?>, CustomerSort> customerSorts;
+    private AppointmentSort appointmentSort = AppointmentSort.START;
+    private boolean appointmentsAscending = true;
+    private CustomerSort customerSort = CustomerSort.ID;
+    private boolean customersAscending = true;
+
+    // Writes made anywhere in the application are applied to the tables as they happen
+    private final List<DataChangeBus.Subscription> subscriptions = new ArrayList<>();
+
     /**
      * Initializes the controller after the root element has been completely processed.
      * Sets up cell factories for table columns, configures button actions, and
-     * initializes data in the tables. Lambda expressions are used in cell factories for
+     * initializes data in the tables. Every table is loaded by its own background query, so they all run at the
+     * same time and each table fills in as soon as its own data arrives. The reports are only loaded once the
+     * reports tab is first opened. Lambda expressions are used in cell factories for
      * efficient and concise implementation without the need for additional classes or methods.
      */
     public void initialize() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        loadingIndicator.visibleProperty().bind(tasks.busyProperty());
 
         start.setCellFactory(column -> new TableCell<>() {
             @Override
@@ -180,17 +221,6 @@ public class MainWindowController {
             }
         });
 
-        apptId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        title.setCellValueFactory(new PropertyValueFactory<>("title"));
-        description.setCellValueFactory(new PropertyValueFactory<>("description"));
-        locationColumn.setCellValueFactory(new PropertyValueFactory<>("location"));
-        contact.setCellValueFactory(new PropertyValueFactory<>("contactId"));
-        type.setCellValueFactory(new PropertyValueFactory<>("type"));
-        start.setCellValueFactory(new PropertyValueFactory<>("start"));
-        end.setCellValueFactory(new PropertyValueFactory<>("end"));
-        customerId.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-        userId.setCellValueFactory(new PropertyValueFactory<>("userId"));
-
         idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         addressColumn.setCellValueFactory(new PropertyValueFactory<>("address"));
@@ -200,27 +230,28 @@ public class MainWindowController {
         createdByColumn.setCellValueFactory(new PropertyValueFactory<>("createdBy"));
         lastUpdateColumn.setCellValueFactory(new PropertyValueFactory<>("lastUpdate"));
         lastUpdatedByColumn.setCellValueFactory(new PropertyValueFactory<>("lastUpdatedBy"));
-        stateColumn.setCellValueFactory(new PropertyValueFactory<>("divisionId"));
-        countryColumn.setCellValueFactory(new PropertyValueFactory<>("divisionId"));
-
-        refreshAppointmentsTable();
+        stateColumn.setCellValueFactory(new PropertyValueFactory<>("state"));
+        countryColumn.setCellValueFactory(new PropertyValueFactory<>("country"));
 
         updateAppointmentBtn.setOnAction(e -> updateAppointment());
+        appointmentsPager = new TablePager<>(appointmentsTable, tasks, Appointment::getId);
+        customersPager = new TablePager<>(customerTable, tasks, Customer::getId);
+        appointmentsTab.textProperty().bind(Bindings.format("Appointments (%d)", appointmentsPager.totalCountProperty()));
+        customersTab.textProperty().bind(Bindings.format("Customers (%d)", customersPager.totalCountProperty()));
+
         loadAppointments();
         loadCustomers();
+        installSortPolicies();
         deleteAppointmentBtn.setOnAction(e -> deleteAppointment());
         weeklyRadio.setOnAction(e -> filterAppointmentsByWeek());
         monthlyRadio.setOnAction(e -> filterAppointmentsByMonth());
-        allRadio.setOnAction(e -> loadAppointments());
+        allRadio.setOnAction(e -> showAppointments(null, null));
 
-        generateAppointmentReport();
-        generateContactScheduleReport();
-
-        r2AppointmentIdColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        r2TitleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
-        r2TypeColumn.setCellValueFactory(new PropertyValueFactory<>("type"));
-        r2DescriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
-        r2StartColumn.setCellValueFactory(new PropertyValueFactory<>("start"));
+        r2AppointmentIdColumn.setCellValueFactory(cellData -> cellData.getValue().idProperty());
+        r2TitleColumn.setCellValueFactory(cellData -> cellData.getValue().titleProperty());
+        r2TypeColumn.setCellValueFactory(cellData -> cellData.getValue().typeProperty());
+        r2DescriptionColumn.setCellValueFactory(cellData -> cellData.getValue().descriptionProperty());
+        r2StartColumn.setCellValueFactory(cellData -> cellData.getValue().startProperty());
         r2StartColumn.setCellFactory(column -> new TableCell<>() {
             @Override
             protected void updateItem(LocalDateTime item, boolean empty) {
@@ -229,7 +260,7 @@ public class MainWindowController {
             }
         });
 
-        r2EndColumn.setCellValueFactory(new PropertyValueFactory<>("end"));
+        r2EndColumn.setCellValueFactory(cellData -> cellData.getValue().endProperty());
         r2EndColumn.setCellFactory(column -> new TableCell<>() {
             @Override
             protected void updateItem(LocalDateTime item, boolean empty) {
@@ -238,19 +269,46 @@ public class MainWindowController {
             }
         });
 
-        r2CustomerIdColumn.setCellValueFactory(new PropertyValueFactory<>("customerId"));
+        r2CustomerIdColumn.setCellValueFactory(cellData -> cellData.getValue().customerIdProperty());
 
-        List<String> contactNames = appointmentDAO.getAllContactNames();
-        reportContactCBox.getItems().addAll(contactNames);
-
-        reportContactCBox.getSelectionModel().selectedItemProperty().addListener((options, oldValue, newValue) -> {
-            List<Appointment> appointments = appointmentDAO.getScheduleByContact(newValue);
-            report2TableView.setItems(FXCollections.observableArrayList(appointments));
-        });
+        reportContactCBox.getSelectionModel().selectedItemProperty().addListener((options, oldValue, newValue) ->
+                loadContactSchedule(appointmentDAO.getScheduleByContactAsync(newValue)));
 
         customerNameColumn.setCellValueFactory(new PropertyValueFactory<>("customerName"));
         appointmentCountColumn.setCellValueFactory(new PropertyValueFactory<>("count"));
 
+        subscriptions.add(DataChangeBus.subscribe(Appointment.class,
+                change -> Platform.runLater(() -> applyAppointmentChange(change))));
+        subscriptions.add(DataChangeBus.subscribe(Customer.class,
+                change -> Platform.runLater(() -> applyCustomerChange(change))));
+
+        reportsTab.setOnSelectionChanged(e -> {
+            if (reportsTab.isSelected()) {
+                loadReports();
+            }
+        });
+        if (reportsTab.isSelected()) {
+            loadReports();
+        }
+    }
+
+    /**
+     * Loads the three reports the first time the reports tab is shown after they were loaded or went stale.
+     * The reports themselves are cached by {@link AppointmentDAO} until an appointment or customer changes, so
+     * reloading them after nothing changed does not recompute them.
+     */
+    private void loadReports() {
+        if (reportsLoaded) {
+            return;
+        }
+        reportsLoaded = true;
+
+        generateAppointmentReport();
+
+        CompletableFuture<List<String>> contactNames = appointmentDAO.getAllContactNamesAsync();
+        tasks.submit(contactNames, names -> reportContactCBox.getItems().setAll(names));
+        generateContactScheduleReport(contactNames);
+
         populateCustomerAppointmentFrequencyTable();
     }
 
@@ -259,82 +317,171 @@ public class MainWindowController {
      * The report is represented as a table where each row shows the month, type, and count.
      */
     private void generateAppointmentReport() {
-        // Get the data from the DAO
-        Map<String, Map<String, Integer>> reportData = appointmentDAO.getAppointmentsCountByTypeAndMonth();
-
-        // Flatten the nested map into a list of entries
-        List<Map.Entry<String, Map.Entry<String, Integer>>> flattenedData = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Integer>> monthEntry : reportData.entrySet()) {
-            for (Map.Entry<String, Integer> typeEntry : monthEntry.getValue().entrySet()) {
-                flattenedData.add(new AbstractMap.SimpleEntry<>(monthEntry.getKey(), typeEntry));
-            }
-        }
-
         // Bind the table columns to the properties of the map entries
         monthColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getKey()));
         typeColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getValue().getKey()));
         countColumn.setCellValueFactory(data -> new SimpleIntegerProperty(data.getValue().getValue().getValue()).asObject());
 
-        // Add the data to the table
-        reportsTableView.getItems().setAll(flattenedData);
+        // Get the data from the DAO and flatten the nested map into a list of entries
+        tasks.submit(appointmentDAO.getAppointmentsCountByTypeAndMonthAsync().thenApply(reportData -> {
+            List<Map.Entry<String, Map.Entry<String, Integer>>> flattenedData = new ArrayList<>();
+            for (Map.Entry<String, Map<String, Integer>> monthEntry : reportData.entrySet()) {
+                for (Map.Entry<String, Integer> typeEntry : monthEntry.getValue().entrySet()) {
+                    flattenedData.add(new AbstractMap.SimpleEntry<>(monthEntry.getKey(), typeEntry));
+                }
+            }
+            return flattenedData;
+        }), flattenedData -> reportsTableView.getItems().setAll(flattenedData));
     }
 
     /**
      * Generates a report displaying the schedule of contacts.
-     * Populates the TableView with appointments for the selected contact.
+     * Populates the TableView with appointments for the first contact as soon as the contact names are known,
+     * without waiting for the ComboBox to be filled.
+     *
+     * @param contactNames the pending names of all contacts, in ComboBox order.
+     */
+    private void generateContactScheduleReport(CompletableFuture<List<String>> contactNames) {
+        loadContactSchedule(contactNames.thenCompose(names -> names.isEmpty()
+                ? CompletableFuture.completedFuture(Collections.<Appointment>emptyList())
+                : appointmentDAO.getScheduleByContactAsync(names.get(0))));
+    }
+
+    /**
+     * Shows a contact's schedule in the contact schedule report once it has loaded, replacing any load still
+     * in progress.
+     *
+     * @param schedule the pending appointments of the contact.
      */
-    public void generateContactScheduleReport() {
-        // Initially populate the TableView with the appointments for the first contact in the ComboBox
-        if (!reportContactCBox.getItems().isEmpty()) {
-            String firstContactName = reportContactCBox.getItems().get(0);
-            List<Appointment> appointments = appointmentDAO.getScheduleByContact(firstContactName);
-            report2TableView.setItems(FXCollections.observableArrayList(appointments));
+    private void loadContactSchedule(CompletableFuture<List<Appointment>> schedule) {
+        if (scheduleLoad != null) {
+            scheduleLoad.cancel(true);
         }
+        scheduleLoad = tasks.submit(schedule,
+                appointments -> report2TableView.setItems(FXCollections.observableArrayList(appointments)));
     }
 
     /**
      * Loads all appointments from the database and displays them in the appointments table.
      */
     private void loadAppointments() {
-        ObservableList<Appointment> appointments = FXCollections.observableArrayList(appointmentDAO.getAllAppointments());
-
-        apptId.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getId()));
-        title.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getTitle()));
-        description.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getDescription()));
-        locationColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLocation()));
-        contact.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getContactId()));
-        type.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getType()));
-        start.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getStart()));
-        end.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getEnd()));
-        customerId.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCustomerId()));
-        userId.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getUserId()));
-
-        appointmentsTable.setItems(appointments);
+        // Appointments are immutable and cache their cell values, so scrolling reuses them instead of wrapping again
+        apptId.setCellValueFactory(cellData -> cellData.getValue().idProperty());
+        title.setCellValueFactory(cellData -> cellData.getValue().titleProperty());
+        description.setCellValueFactory(cellData -> cellData.getValue().descriptionProperty());
+        locationColumn.setCellValueFactory(cellData -> cellData.getValue().locationProperty());
+        contact.setCellValueFactory(cellData -> cellData.getValue().contactIdProperty());
+        type.setCellValueFactory(cellData -> cellData.getValue().typeProperty());
+        start.setCellValueFactory(cellData -> cellData.getValue().startProperty());
+        end.setCellValueFactory(cellData -> cellData.getValue().endProperty());
+        customerId.setCellValueFactory(cellData -> cellData.getValue().customerIdProperty());
+        userId.setCellValueFactory(cellData -> cellData.getValue().userIdProperty());
+
+        showAppointments(null, null);
+    }
+
+    /**
+     * Shows the appointments starting in a period, or all of them, a page at a time in the order of the sorted
+     * column. Pages still loading for the previous period are cancelled, so switching filters quickly never shows
+     * an older result over a newer one.
+     *
+     * @param from the earliest start to show, or null to show every appointment.
+     * @param to   the start to stop before; used together with {@code from}.
+     */
+    private void showAppointments(LocalDateTime from, LocalDateTime to) {
+        AppointmentSort sort = appointmentSort;
+        boolean ascending = appointmentsAscending;
+        appointmentsFrom = from;
+        appointmentsTo = to;
+        appointmentFilter = from == null ? appointment -> true : appointment -> startsBetween(appointment, from, to);
+        appointmentsPager.reset((after, limit) -> appointmentDAO.getAppointmentsPage(from, to, sort, ascending, after, limit),
+                () -> appointmentDAO.countAppointments(from, to), sort.order(ascending));
+    }
+
+    /**
+     * Shows the customers a page at a time in the order of the sorted column.
+     */
+    private void showCustomers() {
+        CustomerSort sort = customerSort;
+        boolean ascending = customersAscending;
+        customersPager.reset((after, limit) -> customerDAO.getCustomersPage(sort, ascending, after, limit),
+                customerDAO::countCustomers, sort.order(ascending));
+    }
+
+    /**
+     * Replaces the tables' in-memory sorting, which would only sort the pages loaded so far, with sorting by the
+     * database. Clicking a column header reloads the table from its first page in the column's order; only the
+     * first column of a multi-column sort is used. Columns the database cannot sort by are not sortable.
+     */
+    private void installSortPolicies() {
+        appointmentSorts = Map.of(apptId, AppointmentSort.ID, title, AppointmentSort.TITLE,
+                description, AppointmentSort.DESCRIPTION, locationColumn, AppointmentSort.LOCATION,
+                contact, AppointmentSort.CONTACT, type, AppointmentSort.TYPE, start, AppointmentSort.START,
+                end, AppointmentSort.END, customerId, AppointmentSort.CUSTOMER, userId, AppointmentSort.USER);
+        customerSorts = Map.of(idColumn, CustomerSort.ID, nameColumn, CustomerSort.NAME,
+                addressColumn, CustomerSort.ADDRESS, postalCodeColumn, CustomerSort.POSTAL_CODE,
+                phoneColumn, CustomerSort.PHONE, createdDateColumn, CustomerSort.CREATE_DATE,
+                createdByColumn, CustomerSort.CREATED_BY, lastUpdateColumn, CustomerSort.LAST_UPDATE,
+                lastUpdatedByColumn, CustomerSort.LAST_UPDATED_BY);
+        stateColumn.setSortable(false);
+        countryColumn.setSortable(false);
+
+        appointmentsTable.setSortPolicy(table -> {
+            TableColumn<Appointment, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            AppointmentSort sort = column == null ? AppointmentSort.START : appointmentSorts.get(column);
+            boolean ascending = column == null || column.getSortType() == TableColumn.SortType.ASCENDING;
+            if (sort != appointmentSort || ascending != appointmentsAscending) {
+                appointmentSort = sort;
+                appointmentsAscending = ascending;
+                showAppointments(appointmentsFrom, appointmentsTo);
+            }
+            return true;
+        });
+        customerTable.setSortPolicy(table -> {
+            TableColumn<Customer, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            CustomerSort sort = column == null ? CustomerSort.ID : customerSorts.get(column);
+            boolean ascending = column == null || column.getSortType() == TableColumn.SortType.ASCENDING;
+            if (sort != customerSort || ascending != customersAscending) {
+                customerSort = sort;
+                customersAscending = ascending;
+                showCustomers();
+            }
+            return true;
+        });
     }
 
     /**
-     * Loads all customers from the database and displays them in the customer table.
+     * Loads the customers from the database a page at a time and displays them in the customer table.
      */
     private void loadCustomers() {
-        try {
-            ObservableList<Customer> customerList = FXCollections.observableArrayList(customerDAO.getAllCustomers());
-
-            idColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getId()));
-            nameColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getName()));
-            addressColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getAddress()));
-            postalCodeColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getPostalCode()));
-            phoneColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getPhone()));
-            createdDateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCreateDate()));
-            createdByColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCreatedBy()));
-            lastUpdateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLastUpdate()));
-            lastUpdatedByColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLastUpdatedBy()));
-            stateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(Helper.getDivisionData(cellData.getValue().getDivisionId())));
-            countryColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(Helper.getCountryData(cellData.getValue().getDivisionId())));
-
-            customerTable.setItems(customerList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        idColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getId()));
+        nameColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getName()));
+        addressColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getAddress()));
+        postalCodeColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getPostalCode()));
+        phoneColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getPhone()));
+        createdDateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCreateDate()));
+        createdByColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCreatedBy()));
+        lastUpdateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLastUpdate()));
+        lastUpdatedByColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getLastUpdatedBy()));
+        stateColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getState()));
+        // Formatted only when a cell shows them
+        createdDateColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(LocalDateTime item, boolean empty) {
+                super.updateItem(item, empty);
+                setText((item == null || empty) ? null : AUDIT_TIME_FORMAT.format(item));
+            }
+        });
+        lastUpdateColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(LocalDateTime item, boolean empty) {
+                super.updateItem(item, empty);
+                setText((item == null || empty) ? null : AUDIT_TIME_FORMAT.format(item));
+            }
+        });
+        countryColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getCountry()));
+
+        showCustomers();
     }
 
     /**
@@ -344,12 +491,8 @@ public class MainWindowController {
     @FXML
     private void addAppointment(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/c195_project/AddAppointment.fxml"));
-            Parent root = loader.load();
-            Scene scene = new Scene(root);
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            SceneRegistry.show(stage, SceneRegistry.ADD_APPOINTMENT_FXML, null);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -374,34 +517,12 @@ public class MainWindowController {
         }
 
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/c195_project/UpdateAppointment.fxml"));
-            Parent updateAppointmentWindow = loader.load();
-            UpdateAppointmentController controller = loader.getController();
-
-            // Create a copy of the selected appointment and pass it to the Update Appointment window
-            Appointment appointmentCopy = new Appointment(
-                    selectedAppointment.getId(),
-                    selectedAppointment.getTitle(),
-                    selectedAppointment.getDescription(),
-                    selectedAppointment.getLocation(),
-                    selectedAppointment.getType(),
-                    selectedAppointment.getStart(),
-                    selectedAppointment.getEnd(),
-                    selectedAppointment.getCreateDate(),
-                    selectedAppointment.getCreatedBy(),
-                    selectedAppointment.getLastUpdate(),
-                    selectedAppointment.getLastUpdatedBy(),
-                    selectedAppointment.getCustomerId(),
-                    selectedAppointment.getUserId(),
-                    selectedAppointment.getContactId()
-            );
-            controller.initData(appointmentCopy);
-
             // Get the stage from any component. In this case, we get it from the appointmentsTable.
             Stage stage = (Stage) appointmentsTable.getScene().getWindow();
-            Scene scene = new Scene(updateAppointmentWindow);
-            stage.setScene(scene);
-            stage.show();
+            UpdateAppointmentController controller = SceneRegistry.show(stage, SceneRegistry.UPDATE_APPOINTMENT_FXML, null);
+
+            // Appointments are immutable, so the form can be given the table's own instance
+            controller.initData(selectedAppointment);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -415,12 +536,8 @@ public class MainWindowController {
     @FXML
     private void addCustomer(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/c195_project/AddCustomer.fxml"));
-            Parent root = loader.load();
-            Scene scene = new Scene(root);
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            SceneRegistry.show(stage, SceneRegistry.ADD_CUSTOMER_FXML, null);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -442,15 +559,9 @@ public class MainWindowController {
         }
 
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/c195_project/UpdateCustomer.fxml"));
-            Parent root = loader.load();
-            UpdateCustomerController controller = loader.getController();
-            controller.setCustomer(selectedCustomer);
-
-            Scene scene = new Scene(root);
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            UpdateCustomerController controller = SceneRegistry.show(stage, SceneRegistry.UPDATE_CUSTOMER_FXML, null);
+            controller.setCustomer(selectedCustomer);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -474,8 +585,12 @@ public class MainWindowController {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Are you sure you want to delete this customer and all associated appointments?", ButtonType.YES, ButtonType.NO);
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.YES) {
-            customerDAO.deleteCustomer(selectedCustomer.getId());
-            loadCustomers();  // reload the customers to reflect the deletion in the TableView
+            tasks.submit(() -> customerDAO.deleteCustomer(selectedCustomer.getId()), deleted -> {
+                if (!deleted) {
+                    Helper.showAlert("The customer could not be deleted. No changes were made.");
+                }
+                // The customer and its appointments are removed from the tables by applyCustomerChange
+            });
         }
     }
 
@@ -501,36 +616,38 @@ public class MainWindowController {
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.YES) {
             // Delete the appointment from the database
-            appointmentDAO.deleteAppointment(selectedAppointment.getId());
-
-            // Remove the appointment from the table view
-            appointmentsTable.getItems().remove(selectedAppointment);
-
-            Alert info = new Alert(Alert.AlertType.INFORMATION);
-            info.setTitle("Information");
-            info.setHeaderText("Appointment Deleted");
-            info.setContentText(String.format("Appointment # %d of type %s has been deleted.",
-                    selectedAppointment.getId(), selectedAppointment.getType()));
-            info.showAndWait();
-
-            // Refresh the appointments table
-            refreshAppointmentsTable();
+            tasks.submit(() -> appointmentDAO.deleteAppointment(selectedAppointment.getId()), deleted -> {
+                if (!deleted) {
+                    Helper.showAlert("The appointment could not be deleted.");
+                    return;
+                }
+
+                // The row itself is removed by applyAppointmentChange
+                Alert info = new Alert(Alert.AlertType.INFORMATION);
+                info.setTitle("Information");
+                info.setHeaderText("Appointment Deleted");
+                info.setContentText(String.format("Appointment # %d of type %s has been deleted.",
+                        selectedAppointment.getId(), selectedAppointment.getType()));
+                info.showAndWait();
+            });
         }
     }
 
     /**
      * Logs out the user and redirects them to the login window.
+     * Every cached screen is dropped, so the next user starts from freshly built screens.
      * @param event the action event triggering this method.
      */
     @FXML
     private void handleLogout(ActionEvent event) {
         System.out.println("User has logged out");
+        dispose();
+        DeltaSync.stop();
+        SceneRegistry.clear();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/c195_project/Login.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root));
-            stage.show();
+            // The event may come from the menu, which is not a node, so take the stage from the window itself
+            Stage stage = (Stage) mainBorderPane.getScene().getWindow();
+            SceneRegistry.show(stage, SceneRegistry.LOGIN_FXML, "Login");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -541,77 +658,98 @@ public class MainWindowController {
      */
     @FXML
     private void handleExit() {
+        dispose();
         Stage stage = (Stage) mainBorderPane.getScene().getWindow();
         stage.close();
     }
 
     /**
-     * Refreshes the appointments table with the latest data from the database.
+     * Stops the window's background work and its change subscriptions, once it will no longer be shown.
      */
-    void refreshAppointmentsTable() {
-        ObservableList<Appointment> appointments = FXCollections.observableArrayList(appointmentDAO.getAllAppointments());
-        appointmentsTable.setItems(appointments);
-        appointmentsTable.refresh(); // Explicitly refresh the table view
+    private void dispose() {
+        tasks.cancelAll();
+        for (DataChangeBus.Subscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+        subscriptions.clear();
     }
 
     /**
-     * Filters the appointments table to show only appointments scheduled for the current week.
+     * Applies a written appointment to the appointments table in place, so a save touches a single row and the
+     * table keeps its scroll position and selection. The row is replaced, added or removed depending on whether
+     * the appointment matches the active filter, and the reports are marked stale.
+     *
+     * @param change the written appointment.
      */
-    private void filterAppointmentsByWeek() {
-        ObservableList<Appointment> allAppointments = FXCollections.observableArrayList(appointmentDAO.getAllAppointments());
-        ObservableList<Appointment> filteredAppointments = FXCollections.observableArrayList();
-
-        for (Appointment appointment : allAppointments) {
-            // Check if the appointment is within the current week
-            if (isWithinThisWeek(appointment.getStart().toLocalDate()) && isWithinThisWeek(appointment.getEnd().toLocalDate())) {
-                filteredAppointments.add(appointment);
-            }
+    private void applyAppointmentChange(DataChange<Appointment> change) {
+        reportsChanged();
+        if (change.getKind() != DataChange.Kind.DELETED && appointmentFilter.test(change.getEntity())) {
+            appointmentsPager.upsert(change.getEntity());
+        } else {
+            appointmentsPager.remove(change.getId());
         }
-
-        appointmentsTable.setItems(filteredAppointments);
     }
 
     /**
-     * Filters the appointments table to show only appointments scheduled for the current month.
+     * Applies a written customer to the customers table in place. A deleted customer's appointments were
+     * deleted with it, so they are removed from the appointments table as well.
+     *
+     * @param change the written customer.
      */
-    private void filterAppointmentsByMonth() {
-        ObservableList<Appointment> allAppointments = FXCollections.observableArrayList(appointmentDAO.getAllAppointments());
-        ObservableList<Appointment> filteredAppointments = FXCollections.observableArrayList();
-
-        for (Appointment appointment : allAppointments) {
-            // Check if the appointment is within the current month
-            if (isWithinThisMonth(appointment.getStart().toLocalDate()) && isWithinThisMonth(appointment.getEnd().toLocalDate())) {
-                filteredAppointments.add(appointment);
-            }
+    private void applyCustomerChange(DataChange<Customer> change) {
+        reportsChanged();
+        if (change.getKind() == DataChange.Kind.DELETED) {
+            customersPager.remove(change.getId());
+            appointmentsPager.removeIf(appointment -> appointment.getCustomerId() == change.getId());
+        } else {
+            customersPager.upsert(change.getEntity());
         }
-
-        appointmentsTable.setItems(filteredAppointments);
     }
 
     /**
-     * Checks if a given date is within the current week.
-     * @param date the date to be checked.
-     * @return true if the date is within the current week, false otherwise.
+     * Marks the reports stale, reloading them if the reports tab is showing and otherwise the next time it is
+     * opened. The reload runs once after the change events already queued on the JavaFX thread, so a burst of
+     * writes reloads the reports once rather than once per written row.
      */
-    private boolean isWithinThisWeek(LocalDate date) {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
-        LocalDate endOfWeek = today.with(DayOfWeek.SUNDAY);
+    private void reportsChanged() {
+        reportsLoaded = false;
+        if (reportsTab.isSelected() && !reportsReloadPending) {
+            reportsReloadPending = true;
+            Platform.runLater(() -> {
+                reportsReloadPending = false;
+                if (reportsTab.isSelected()) {
+                    loadReports();
+                }
+            });
+        }
+    }
 
-        return date.isEqual(startOfWeek) || date.isEqual(endOfWeek) || (date.isAfter(startOfWeek) && date.isBefore(endOfWeek));
+    /**
+     * Filters the appointments table to show only appointments starting in the current week (Monday to Sunday).
+     */
+    private void filterAppointmentsByWeek() {
+        LocalDateTime startOfWeek = LocalDate.now().with(DayOfWeek.MONDAY).atStartOfDay();
+        showAppointments(startOfWeek, startOfWeek.plusWeeks(1));
     }
 
     /**
-     * Checks if a given date is within the current month.
-     * @param date the date to be checked.
-     * @return true if the date is within the current month, false otherwise.
+     * Filters the appointments table to show only appointments starting in the current month.
      */
-    private boolean isWithinThisMonth(LocalDate date) {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
-        LocalDate endOfMonth = today.withDayOfMonth(today.lengthOfMonth());
+    private void filterAppointmentsByMonth() {
+        LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        showAppointments(startOfMonth, startOfMonth.plusMonths(1));
+    }
 
-        return date.isEqual(startOfMonth) || date.isEqual(endOfMonth) || (date.isAfter(startOfMonth) && date.isBefore(endOfMonth));
+    /**
+     * Checks whether an appointment starts in a period, the way {@link AppointmentDAO#getAppointmentsPage} does.
+     *
+     * @param appointment the appointment.
+     * @param from        the start of the period, inclusive.
+     * @param to          the end of the period, exclusive.
+     * @return true if the appointment starts in the period.
+     */
+    private static boolean startsBetween(Appointment appointment, LocalDateTime from, LocalDateTime to) {
+        return !appointment.getStart().isBefore(from) && appointment.getStart().isBefore(to);
     }
 
     /**
@@ -619,9 +757,8 @@ public class MainWindowController {
      * The table displays the frequency of appointments for each customer.
      */
     private void populateCustomerAppointmentFrequencyTable() {
-        AppointmentDAO appointmentDAO = new AppointmentDAO();
-        List<CustomerReport> reportData = appointmentDAO.getCustomerAppointmentFrequency();
-        report3TableView.setItems(FXCollections.observableArrayList(reportData));
+        tasks.submit(appointmentDAO.getCustomerAppointmentFrequencyAsync(),
+                reportData -> report3TableView.setItems(FXCollections.observableArrayList(reportData)));
     }
 
 }
\ No newline at end of file
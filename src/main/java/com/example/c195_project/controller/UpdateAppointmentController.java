@@ -2,13 +2,12 @@ package com.example.c195_project.controller;
 
 import com.example.c195_project.dao.AppointmentDAO;
 import com.example.c195_project.helper.Helper;
+import com.example.c195_project.helper.SceneRegistry;
+import com.example.c195_project.helper.TaskGroup;
 import com.example.c195_project.model.Appointment;
 
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
@@ -26,14 +25,14 @@ import java.util.logging.Logger;
 /**
  * Controller class responsible for managing the update appointment functionality of the application.
  */
-public class UpdateAppointmentController {
+public class UpdateAppointmentController implements SceneRegistry.Reusable {
 
     private static final Logger LOGGER = Logger.getLogger(UpdateAppointmentController.class.getName());
 
-    private static final String MAIN_WINDOW_FXML = "/com/example/c195_project/MainWindow.fxml";
-    private static final String STYLESHEET_CSS = "/com/example/c195_project/stylesheet.css";
+    private static final String MAIN_MENU_TITLE = "Main Menu";
     private static final String TIME_PATTERN = "HH:mm";
     private static final String OVERLAPPING_SCHEDULE_MESSAGE = "There is an overlap in scheduling times for this customer.";
+    private static final String SAVE_FAILURE_MESSAGE = "Failed to update appointment.";
 
     @FXML
     private Button cancelBtn;
@@ -62,18 +61,19 @@ public class UpdateAppointmentController {
     @FXML
     private DatePicker updateAppEndDPick;
 
+    @FXML
+    private Button updateAppSaveBtn;
+
     private AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final TaskGroup tasks = new TaskGroup();
 
     /**
-     * Initializes the UI components. Sets up available options and default selections.
+     * Initializes the UI components. Sets up the time slots; the other options are loaded by {@link #onShow()},
+     * since the form is kept alive between visits.
      */
     public void initialize() {
         cancelBtn.setOnAction(e -> goToMainWindow());
 
-        updateAppContactCBox.setItems(FXCollections.observableArrayList(Helper.getAllContactNames()));
-        updateAppCustIdCBox.setItems(FXCollections.observableArrayList(getSortedCustomerIds()));
-        updateAppUserIdCBox.setItems(FXCollections.observableArrayList(getSortedUserIds()));
-
         // Define the Eastern Standard Time zone
         ZoneId estZone = ZoneId.of("America/New_York");
 
@@ -95,6 +95,19 @@ public class UpdateAppointmentController {
         disableAndGreyOutTextField(updateAppIdTxt);
     }
 
+    /**
+     * Re-enables saving and reloads the options, which may have changed since the previous visit.
+     * The fields themselves are filled in by {@link #initData(Appointment)}.
+     */
+    @Override
+    public void onShow() {
+        updateAppSaveBtn.setDisable(false);
+
+        tasks.submit(Helper::getAllContactNames, contactNames -> updateAppContactCBox.setItems(FXCollections.observableArrayList(contactNames)));
+        tasks.submit(this::getSortedCustomerIds, customerIds -> updateAppCustIdCBox.setItems(FXCollections.observableArrayList(customerIds)));
+        tasks.submit(this::getSortedUserIds, userIds -> updateAppUserIdCBox.setItems(FXCollections.observableArrayList(userIds)));
+    }
+
     /**
      * Saves the updated appointment data after validation.
      * <p>
@@ -136,28 +149,58 @@ public class UpdateAppointmentController {
 
         Appointment updatedAppointment = createUpdatedAppointment();
 
-        if (appointmentDAO.isTimeSlotFree(updatedAppointment.getCustomerId(), updatedAppointment.getStart(), updatedAppointment.getEnd(), Integer.parseInt(updateAppIdTxt.getText()))) {
-            appointmentDAO.updateAppointment(updatedAppointment);
-            goToMainWindow();
-        } else {
-            Helper.showAlert(OVERLAPPING_SCHEDULE_MESSAGE);
-        }
+        // Check the slot and save in the background, keeping the button disabled until the outcome is known
+        updateAppSaveBtn.setDisable(true);
+        tasks.submit(() -> appointmentDAO.findCollisions(updatedAppointment.getCustomerId(), updatedAppointment.getStart(), updatedAppointment.getEnd(), updatedAppointment.getId()), collisions -> {
+            if (!collisions.isEmpty()) {
+                updateAppSaveBtn.setDisable(false);
+                Helper.showAlert(Helper.describeCollisions(OVERLAPPING_SCHEDULE_MESSAGE, collisions));
+                return;
+            }
+            tasks.submit(() -> appointmentDAO.updateAppointment(updatedAppointment), updated -> {
+                if (updated) {
+                    goToMainWindow();
+                } else {
+                    saveRefused(updatedAppointment);
+                }
+            }, this::saveFailed);
+        }, this::saveFailed);
     }
 
+    /**
+     * Re-enables saving after the appointment was not saved, explaining the overlap if the slot was booked from
+     * another workstation after it was checked, which the save's own check against the database catches.
+     *
+     * @param appointment the appointment that was not saved.
+     */
+    private void saveRefused(Appointment appointment) {
+        tasks.submit(() -> appointmentDAO.findCollisions(appointment.getCustomerId(), appointment.getStart(), appointment.getEnd(), appointment.getId()), collisions -> {
+            updateAppSaveBtn.setDisable(false);
+            Helper.showAlert(collisions.isEmpty() ? SAVE_FAILURE_MESSAGE : Helper.describeCollisions(OVERLAPPING_SCHEDULE_MESSAGE, collisions));
+        }, this::saveFailed);
+    }
 
     /**
-     * Redirects the user to the main window after updating the appointment.
+     * Re-enables saving and reports an error thrown while saving.
+     *
+     * @param error the error.
+     */
+    private void saveFailed(Throwable error) {
+        updateAppSaveBtn.setDisable(false);
+        error.printStackTrace();
+        Helper.showAlert(SAVE_FAILURE_MESSAGE);
+    }
+
+
+    /**
+     * Redirects the user to the main window, which picks up a saved update by itself.
      */
     @FXML
     private void goToMainWindow() {
+        tasks.cancelAll();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(MAIN_WINDOW_FXML));
-            Parent sceneRoot = loader.load();
-
-            MainWindowController mainWindowController = loader.getController();
-            mainWindowController.refreshAppointmentsTable();
-
-            loadFXMLScene(sceneRoot);
+            Stage stage = (Stage) cancelBtn.getScene().getWindow();
+            SceneRegistry.show(stage, SceneRegistry.MAIN_WINDOW_FXML, MAIN_MENU_TITLE);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -286,18 +329,4 @@ public class UpdateAppointmentController {
         textField.setDisable(true);
         textField.setStyle("-fx-text-fill: grey;");
     }
-
-    /**
-     * Loads an FXML scene.
-     *
-     * @param sceneRoot the Parent object containing the FXML scene to load.
-     */
-    private void loadFXMLScene(Parent sceneRoot) {
-        Scene scene = new Scene(sceneRoot);
-        scene.getStylesheets().add(getClass().getResource(STYLESHEET_CSS).toExternalForm());
-
-        Stage stage = (Stage) cancelBtn.getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
-    }
 }
@@ -1,31 +1,27 @@
 package com.example.c195_project.controller;
 
 import com.example.c195_project.helper.Helper;
+import com.example.c195_project.helper.SceneRegistry;
+import com.example.c195_project.helper.TaskGroup;
 import com.example.c195_project.model.Customer;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.logging.Logger;
 
 /**
  * Controller class responsible for managing the update customer functionality of the application.
  */
-public class UpdateCustomerController {
+public class UpdateCustomerController implements SceneRegistry.Reusable {
 
     private static final Logger LOGGER = Logger.getLogger(UpdateCustomerController.class.getName());
 
 
-    private static final String MAIN_WINDOW_FXML = "/com/example/c195_project/MainWindow.fxml";
-    private static final String STYLESHEET_CSS = "/com/example/c195_project/stylesheet.css";
     private static final String MAIN_MENU_TITLE = "Main Menu";
     private static final String UPDATE_FAIL_MESSAGE = "Failed to update customer.";
 
@@ -53,6 +49,11 @@ public class UpdateCustomerController {
     @FXML
     private Button cancelBtn;
 
+    @FXML
+    private Button updateCustSaveBtn;
+
+    private final TaskGroup tasks = new TaskGroup();
+
     /**
      * Initializes the UI components. Sets up available options and default selections.
      */
@@ -61,11 +62,26 @@ public class UpdateCustomerController {
         // Add change listener to updateCustCountryCBox
         updateCustCountryCBox.getSelectionModel().selectedItemProperty().addListener((options, oldValue, newValue) -> {
             // When the selected country changes, update the divisions in updateCustStateCBox
-            List<String> divisions = Helper.getDivisions(newValue);
-            updateCustStateCBox.setItems(FXCollections.observableArrayList(divisions));
+            tasks.submit(() -> Helper.getDivisions(newValue), divisions -> {
+                // Keep the selected division if it belongs to the new country, as when the form is first filled in
+                String selectedDivision = updateCustStateCBox.getValue();
+                updateCustStateCBox.setItems(FXCollections.observableArrayList(divisions));
+                if (divisions.contains(selectedDivision)) {
+                    updateCustStateCBox.setValue(selectedDivision);
+                }
+            });
         });
     }
 
+    /**
+     * Re-enables saving, since the form is kept alive between visits.
+     * The fields are filled in by {@link #setCustomer(Customer)}.
+     */
+    @Override
+    public void onShow() {
+        updateCustSaveBtn.setDisable(false);
+    }
+
     /**
      * Populates the form fields with the details of the customer to be updated.
      *
@@ -81,20 +97,17 @@ public class UpdateCustomerController {
         updateCustPhoneNumberTxt.setText(customer.getPhone());
         updateCustPostalTxt.setText(customer.getPostalCode());
 
-        String divisionName = Helper.getDivisionData(customer.getDivisionId());
-        String countryName = Helper.getCountryData(customer.getDivisionId());
+        String divisionName = customer.getState();
+        String countryName = customer.getCountry();
 
-        List<String> allCountries = Helper.getAllCountryNames();
+        tasks.submit(Helper::getAllCountryNames, allCountries -> {
+            // Set the selected division first, so it survives the division list being loaded for the country
+            updateCustStateCBox.setValue(divisionName);
 
-        // Set the items in the country ComboBox and select the correct country
-        updateCustCountryCBox.setItems(FXCollections.observableArrayList(allCountries));
-        updateCustCountryCBox.getSelectionModel().select(countryName);
-
-        // Request the ComboBox to refresh its items by triggering a change
-        updateCustCountryCBox.getSelectionModel().selectedItemProperty().get();
-
-        // Set the selected division in the division ComboBox
-        updateCustStateCBox.getSelectionModel().select(divisionName);
+            // Set the items in the country ComboBox and select the correct country
+            updateCustCountryCBox.setItems(FXCollections.observableArrayList(allCountries));
+            updateCustCountryCBox.getSelectionModel().select(countryName);
+        });
     }
 
 
@@ -133,13 +146,17 @@ public class UpdateCustomerController {
         }
 
         // Update the customer in the database
-        if (Helper.updateCustomer(id, name, address, postalCode, phoneNumber, divisionId)) {
-            // If the update was successful, load the main window
-            goToMainWindow();
-        } else {
-            // If the update failed, show an error message
-            Helper.showAlert(UPDATE_FAIL_MESSAGE);
-        }
+        updateCustSaveBtn.setDisable(true);
+        tasks.submit(() -> Helper.updateCustomer(id, name, address, postalCode, phoneNumber, divisionId), updated -> {
+            if (updated) {
+                // If the update was successful, go back to the main window and show the change
+                goToMainWindow();
+            } else {
+                // If the update failed, show an error message
+                updateCustSaveBtn.setDisable(false);
+                Helper.showAlert(UPDATE_FAIL_MESSAGE);
+            }
+        });
     }
 
 
@@ -148,17 +165,10 @@ public class UpdateCustomerController {
      */
     @FXML
     private void goToMainWindow() {
+        tasks.cancelAll();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(MAIN_WINDOW_FXML));
-            Parent mainWindow = loader.load();
-
             Stage stage = (Stage) cancelBtn.getScene().getWindow();
-            Scene scene = new Scene(mainWindow);
-            scene.getStylesheets().add(getClass().getResource(STYLESHEET_CSS).toExternalForm());
-
-            stage.setScene(scene);
-            stage.show();
-            stage.setTitle(MAIN_MENU_TITLE);
+            SceneRegistry.show(stage, SceneRegistry.MAIN_WINDOW_FXML, MAIN_MENU_TITLE);
         } catch (IOException e) {
             e.printStackTrace();
         }
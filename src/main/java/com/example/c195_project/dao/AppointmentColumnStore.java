@@ -0,0 +1,317 @@
+package com.example.c195_project.dao;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Read-only, column-oriented copy of the appointments for reports. Every column is a primitive array indexed by
+ * row: the IDs as ints, the start and end as UTC epoch seconds, the start month as a byte, and the type and
+ * location as int codes into a dictionary of their distinct values. A million appointments take a few tens of
+ * megabytes instead of a million {@code Appointment} objects, and a scan touches only the columns it reads.
+ * <p>
+ * Reports are built from two operators: {@link #select} filters rows into a selection of row numbers, and
+ * {@link #countBy} groups a selection by a dense int key and counts each group. The store is loaded by
+ * {@link AppointmentDAO#getColumnStore()} in one streaming pass and replaced, never changed, when appointments are
+ * written, so it can be read from any thread.
+ * </p>
+ */
+public class AppointmentColumnStore {
+
+    private final int size;
+    private final int[] ids;
+    private final int[] customerIds;
+    private final int[] userIds;
+    private final int[] contactIds;
+    private final long[] starts;
+    private final long[] ends;
+    private final byte[] startMonths;
+    private final int[] typeCodes;
+    private final int[] locationCodes;
+    private final Dictionary types;
+    private final Dictionary locations;
+    private final int customerIdBound;
+
+    /**
+     * @param builder the builder holding the loaded rows.
+     */
+    private AppointmentColumnStore(Builder builder) {
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        customerIds = Arrays.copyOf(builder.customerIds, size);
+        userIds = Arrays.copyOf(builder.userIds, size);
+        contactIds = Arrays.copyOf(builder.contactIds, size);
+        starts = Arrays.copyOf(builder.starts, size);
+        ends = Arrays.copyOf(builder.ends, size);
+        startMonths = Arrays.copyOf(builder.startMonths, size);
+        typeCodes = Arrays.copyOf(builder.typeCodes, size);
+        locationCodes = Arrays.copyOf(builder.locationCodes, size);
+        types = builder.types;
+        locations = builder.locations;
+        customerIdBound = builder.maxCustomerId + 1;
+    }
+
+    /**
+     * @return the number of appointments.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Scans every row and keeps those that match a condition.
+     *
+     * @param condition tests a row number, typically through the column accessors of this store.
+     * @return the numbers of the matching rows, in ascending order.
+     */
+    public int[] select(IntPredicate condition) {
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (condition.test(row)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Groups rows by a key and counts the rows of each group. The keys must be dense, between 0 and
+     * {@code keyCount}, such as a dictionary code, a month, or a customer ID below {@link #customerIdBound()};
+     * combined keys are formed like {@code (startMonth(row) - 1) * types().size() + typeCode(row)}.
+     *
+     * @param rows     the row numbers to count, as returned by {@link #select}, or null for every row.
+     * @param key      computes the group of a row number.
+     * @param keyCount the number of possible keys.
+     * @return the count of each key, indexed by key.
+     */
+    public int[] countBy(int[] rows, IntUnaryOperator key, int keyCount) {
+        int[] counts = new int[keyCount];
+        if (rows == null) {
+            for (int row = 0; row < size; row++) {
+                counts[key.applyAsInt(row)]++;
+            }
+        } else {
+            for (int row : rows) {
+                counts[key.applyAsInt(row)]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @param row a row number.
+     * @return the appointment's ID.
+     */
+    public int id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the appointment's customer ID.
+     */
+    public int customerId(int row) {
+        return customerIds[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the appointment's user ID.
+     */
+    public int userId(int row) {
+        return userIds[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the appointment's contact ID.
+     */
+    public int contactId(int row) {
+        return contactIds[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the appointment's start, in UTC epoch seconds.
+     */
+    public long start(int row) {
+        return starts[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the appointment's end, in UTC epoch seconds.
+     */
+    public long end(int row) {
+        return ends[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the month of the appointment's stored (UTC) start, from 1 to 12, as the database's MONTH(Start).
+     */
+    public int startMonth(int row) {
+        return startMonths[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the code of the appointment's type in {@link #types()}.
+     */
+    public int typeCode(int row) {
+        return typeCodes[row];
+    }
+
+    /**
+     * @param row a row number.
+     * @return the code of the appointment's location in {@link #locations()}.
+     */
+    public int locationCode(int row) {
+        return locationCodes[row];
+    }
+
+    /**
+     * @return the distinct appointment types.
+     */
+    public Dictionary types() {
+        return types;
+    }
+
+    /**
+     * @return the distinct appointment locations.
+     */
+    public Dictionary locations() {
+        return locations;
+    }
+
+    /**
+     * @return one more than the highest customer ID, so customer IDs can be used as {@link #countBy} keys.
+     */
+    public int customerIdBound() {
+        return customerIdBound;
+    }
+
+    /**
+     * The distinct values of a text column, each stored once and referred to by its code, the position in which
+     * it was first seen.
+     */
+    public static class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        /**
+         * @param value a value, added if it has not been seen before.
+         * @return the value's code.
+         */
+        private int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        /**
+         * @param code a code.
+         * @return the value with the code.
+         */
+        public String valueOf(int code) {
+            return values.get(code);
+        }
+
+        /**
+         * @param value a value.
+         * @return the value's code, or -1 if no row has the value.
+         */
+        public int codeOf(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        /**
+         * @return the number of distinct values, one more than the highest code.
+         */
+        public int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Collects rows one at a time while they are streamed from the database, growing its arrays as needed.
+     */
+    static class Builder {
+        private int size;
+        private int[] ids = new int[1024];
+        private int[] customerIds = new int[1024];
+        private int[] userIds = new int[1024];
+        private int[] contactIds = new int[1024];
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private byte[] startMonths = new byte[1024];
+        private int[] typeCodes = new int[1024];
+        private int[] locationCodes = new int[1024];
+        private final Dictionary types = new Dictionary();
+        private final Dictionary locations = new Dictionary();
+        private int maxCustomerId;
+
+        /**
+         * Adds a row.
+         *
+         * @param id         the appointment's ID.
+         * @param customerId the customer's ID.
+         * @param userId     the user's ID.
+         * @param contactId  the contact's ID.
+         * @param start      the stored (UTC) start.
+         * @param end        the stored (UTC) end.
+         * @param type       the type.
+         * @param location   the location.
+         */
+        void add(int id, int customerId, int userId, int contactId, LocalDateTime start, LocalDateTime end, String type, String location) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            customerIds[size] = customerId;
+            userIds[size] = userId;
+            contactIds[size] = contactId;
+            starts[size] = start.toEpochSecond(ZoneOffset.UTC);
+            ends[size] = end.toEpochSecond(ZoneOffset.UTC);
+            startMonths[size] = (byte) start.getMonthValue();
+            typeCodes[size] = types.encode(type);
+            locationCodes[size] = locations.encode(location);
+            maxCustomerId = Math.max(maxCustomerId, customerId);
+            size++;
+        }
+
+        /**
+         * @return the store holding the added rows, with its arrays trimmed to size.
+         */
+        AppointmentColumnStore build() {
+            return new AppointmentColumnStore(this);
+        }
+
+        /**
+         * Doubles the capacity of every column.
+         */
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            customerIds = Arrays.copyOf(customerIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            contactIds = Arrays.copyOf(contactIds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            startMonths = Arrays.copyOf(startMonths, capacity);
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+            locationCodes = Arrays.copyOf(locationCodes, capacity);
+        }
+    }
+}
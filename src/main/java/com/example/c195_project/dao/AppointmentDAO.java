@@ -1,7 +1,11 @@
 package com.example.c195_project.dao;
 
+import com.example.c195_project.helper.BackgroundTasks;
 import com.example.c195_project.helper.JDBC;
 import com.example.c195_project.helper.Helper;
+import com.example.c195_project.helper.ReferenceDataCache;
+import com.example.c195_project.helper.StringDictionary;
+import com.example.c195_project.helper.TtlCache;
 import com.example.c195_project.model.Appointment;
 import com.example.c195_project.model.CustomerReport;
 
@@ -11,31 +15,132 @@ import java.time.Month;
 import java.time.ZoneId;
 import java.time.format.TextStyle;
 import java.util.*;
-
-import static com.example.c195_project.helper.JDBC.connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) class for handling CRUD operations related to appointments.
  * This class interacts directly with the database to fetch, create, update, and delete appointment records.
+ * The {@code ...Async} read methods run on {@link BackgroundTasks}, so independent queries can be started together
+ * and joined or composed instead of running one after another. Every committed write is published on the
+ * {@link DataChangeBus}.
  */
 public class AppointmentDAO {
 
-    private static final String ALL_APPOINTMENTS_QUERY = "SELECT * FROM appointments";
-    private static final String APPOINTMENT_BY_ID_QUERY = "SELECT * FROM appointments WHERE Appointment_ID = ?";
-    private static final String ADD_APPOINTMENT_QUERY = "INSERT INTO appointments (Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-    private static final String UPDATE_APPOINTMENT_QUERY = "UPDATE appointments SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Create_Date = ?, Created_By = ?, Last_Update = ?, Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? WHERE Appointment_ID = ?";
+    // Projections, each a prefix of the next, so one set of column positions serves all three row mappers:
+    // the contact schedule report, the appointments table and its update form, and the whole row
+    private static final String SCHEDULE_COLUMNS = "Appointment_ID, Title, Description, Type, Start, End, Customer_ID";
+    private static final String VIEW_COLUMNS = SCHEDULE_COLUMNS + ", Location, User_ID, Contact_ID";
+    private static final String ALL_COLUMNS = VIEW_COLUMNS + ", Create_Date, Created_By, Last_Update, Last_Updated_By";
+    private static final int ID_COLUMN = 1;
+    private static final int TITLE_COLUMN = 2;
+    private static final int DESCRIPTION_COLUMN = 3;
+    private static final int TYPE_COLUMN = 4;
+    private static final int START_COLUMN = 5;
+    private static final int END_COLUMN = 6;
+    private static final int CUSTOMER_ID_COLUMN = 7;
+    private static final int LOCATION_COLUMN = 8;
+    private static final int USER_ID_COLUMN = 9;
+    private static final int CONTACT_ID_COLUMN = 10;
+    private static final int CREATE_DATE_COLUMN = 11;
+    private static final int CREATED_BY_COLUMN = 12;
+    private static final int LAST_UPDATE_COLUMN = 13;
+    private static final int LAST_UPDATED_BY_COLUMN = 14;
+
+    private static final String ALL_APPOINTMENTS_QUERY = "SELECT " + ALL_COLUMNS + " FROM appointments";
+    private static final String APPOINTMENT_BY_ID_QUERY = "SELECT " + ALL_COLUMNS + " FROM appointments WHERE Appointment_ID = ?";
+    private static final String ADD_APPOINTMENT_QUERY = "INSERT INTO appointments (Title, Description, Location, Type, Start, End, Create_Date, Created_By, Last_Update, Last_Updated_By, Customer_ID, User_ID, Contact_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, UTC_TIMESTAMP(), ?, ?, ?, ?)";
+    private static final String UPDATE_APPOINTMENT_QUERY = "UPDATE appointments SET Title = ?, Description = ?, Location = ?, Type = ?, Start = ?, End = ?, Create_Date = ?, Created_By = ?, Last_Update = UTC_TIMESTAMP(), Last_Updated_By = ?, Customer_ID = ?, User_ID = ?, Contact_ID = ? WHERE Appointment_ID = ?";
     private static final String DELETE_APPOINTMENT_QUERY = "DELETE FROM appointments WHERE Appointment_ID = ?";
-    private static final String MAX_APPOINTMENT_ID_QUERY = "SELECT MAX(Appointment_ID) AS max_id FROM appointments";
-    private static final String APPOINTMENTS_BY_CUSTOMER_QUERY = "SELECT * FROM appointments WHERE Customer_ID = ?";
-    private static final String ALL_CONTACT_NAMES_QUERY = "SELECT Contact_Name FROM contacts";
+    private static final String APPOINTMENTS_CHANGED_SINCE_QUERY = "SELECT " + ALL_COLUMNS + " FROM appointments WHERE Last_Update >= ?";
+    private static final String DELETED_APPOINTMENT_IDS_SINCE_QUERY = "SELECT Row_ID FROM deleted_rows WHERE Table_Name = 'appointments' AND Deleted_At >= ?";
+    private static final String APPOINTMENTS_PAGE_SELECT = "SELECT " + VIEW_COLUMNS + " FROM appointments";
+    private static final String COUNT_APPOINTMENTS_SELECT = "SELECT COUNT(*) FROM appointments";
+    private static final String START_RANGE_PREDICATE = "Start >= ? AND Start < ?";
+    private static final String APPOINTMENTS_BETWEEN_QUERY = "SELECT " + VIEW_COLUMNS + " FROM appointments WHERE Start >= ? AND Start < ?";
+    private static final String APPOINTMENTS_BY_CUSTOMER_QUERY = "SELECT " + ALL_COLUMNS + " FROM appointments WHERE Customer_ID = ?";
+    private static final String INTERVALS_BY_CUSTOMER_QUERY = "SELECT Appointment_ID, Start, End FROM appointments WHERE Customer_ID = ?";
+    private static final String CONFLICTING_APPOINTMENT_IDS_QUERY = "SELECT Appointment_ID FROM appointments WHERE Customer_ID = ? AND Start < ? AND End > ? AND Appointment_ID <> ?";
+    private static final String LOCK_CUSTOMER_QUERY = "SELECT Customer_ID FROM customers WHERE Customer_ID = ? FOR UPDATE";
+    private static final String COLUMN_STORE_QUERY = "SELECT Appointment_ID, Customer_ID, User_ID, Contact_ID, Start, End, Type, Location FROM appointments";
+    private static final String SCHEDULE_BY_CONTACT_QUERY = "SELECT " + SCHEDULE_COLUMNS + " FROM appointments WHERE Contact_ID = (SELECT Contact_ID FROM contacts WHERE Contact_Name = ?) ORDER BY start";
+    private static final String CUSTOMER_APPOINTMENT_FREQUENCY_QUERY = "SELECT c.Customer_Name as customerName, COUNT(a.Appointment_ID) as count\n" +
+            "FROM appointments a\n" +
+            "JOIN customers c ON a.Customer_ID = c.Customer_ID\n" +
+            "GROUP BY c.Customer_Name\n";
+
+    /**
+     * Reads an appointment from a row of {@link #ALL_COLUMNS}. The mappers share the text columns that repeat
+     * across rows through the {@link StringDictionary}.
+     */
+    private static final RowMapper<Appointment> ALL_MAPPER = rs -> new Appointment(
+            rs.getInt(ID_COLUMN),
+            rs.getString(TITLE_COLUMN),
+            rs.getString(DESCRIPTION_COLUMN),
+            StringDictionary.intern(rs.getString(LOCATION_COLUMN)),
+            StringDictionary.intern(rs.getString(TYPE_COLUMN)),
+            rs.getTimestamp(START_COLUMN).toLocalDateTime(),
+            rs.getTimestamp(END_COLUMN).toLocalDateTime(),
+            rs.getTimestamp(CREATE_DATE_COLUMN).toLocalDateTime(),
+            StringDictionary.intern(rs.getString(CREATED_BY_COLUMN)),
+            rs.getTimestamp(LAST_UPDATE_COLUMN).toLocalDateTime(),
+            StringDictionary.intern(rs.getString(LAST_UPDATED_BY_COLUMN)),
+            rs.getInt(CUSTOMER_ID_COLUMN),
+            rs.getInt(USER_ID_COLUMN),
+            rs.getInt(CONTACT_ID_COLUMN));
+
+    /**
+     * Reads an appointment from a row of {@link #VIEW_COLUMNS}: everything the appointments table and the update
+     * form show, leaving out the audit columns, which are null.
+     */
+    private static final RowMapper<Appointment> VIEW_MAPPER = rs -> new Appointment(
+            rs.getInt(ID_COLUMN),
+            rs.getString(TITLE_COLUMN),
+            rs.getString(DESCRIPTION_COLUMN),
+            StringDictionary.intern(rs.getString(LOCATION_COLUMN)),
+            StringDictionary.intern(rs.getString(TYPE_COLUMN)),
+            rs.getTimestamp(START_COLUMN).toLocalDateTime(),
+            rs.getTimestamp(END_COLUMN).toLocalDateTime(),
+            null, null, null, null,
+            rs.getInt(CUSTOMER_ID_COLUMN),
+            rs.getInt(USER_ID_COLUMN),
+            rs.getInt(CONTACT_ID_COLUMN));
 
-    private Connection conn;
+    /**
+     * Reads an appointment from a row of {@link #SCHEDULE_COLUMNS}: only what the contact schedule report shows.
+     * The location and audit columns are null and the user and contact IDs are 0.
+     */
+    private static final RowMapper<Appointment> SCHEDULE_MAPPER = rs -> new Appointment(
+            rs.getInt(ID_COLUMN),
+            rs.getString(TITLE_COLUMN),
+            rs.getString(DESCRIPTION_COLUMN),
+            null,
+            StringDictionary.intern(rs.getString(TYPE_COLUMN)),
+            rs.getTimestamp(START_COLUMN).toLocalDateTime(),
+            rs.getTimestamp(END_COLUMN).toLocalDateTime(),
+            null, null, null, null,
+            rs.getInt(CUSTOMER_ID_COLUMN),
+            0, 0);
+
+    // Report results, shared by every AppointmentDAO and dropped whenever an appointment or customer is written
+    private static final long REPORT_TTL_MILLIS = Long.getLong("c195.reports.ttlMillis", 5 * 60 * 1000L);
+    private static final String ALL_ROWS = "all";
+    private static final TtlCache<String, AppointmentColumnStore> columnStores = new TtlCache<>(REPORT_TTL_MILLIS);
+    private static final TtlCache<String, Map<String, Map<String, Integer>>> typeAndMonthCounts = new TtlCache<>(REPORT_TTL_MILLIS);
+    private static final TtlCache<String, List<Appointment>> contactSchedules = new TtlCache<>(REPORT_TTL_MILLIS);
+    private static final TtlCache<String, List<CustomerReport>> appointmentFrequency = new TtlCache<>(REPORT_TTL_MILLIS);
+
+    private final AppointmentIntervalIndex intervalIndex = AppointmentIntervalIndex.getInstance();
 
     /**
-     * Constructor for the AppointmentDAO. Initializes the database connection.
+     * Drops the cached report results so the next request recomputes them. Called after every appointment or
+     * customer write.
      */
-    public AppointmentDAO() {
-        this.conn = JDBC.getConnection();
+    public static void invalidateReports() {
+        columnStores.invalidateAll();
+        typeAndMonthCounts.invalidateAll();
+        contactSchedules.invalidateAll();
+        appointmentFrequency.invalidateAll();
     }
 
     /**
@@ -47,15 +152,65 @@ public class AppointmentDAO {
         List<Appointment> appointments = new ArrayList<>();
 
         try {
-            PreparedStatement stmt = JDBC.getConnection().prepareStatement(ALL_APPOINTMENTS_QUERY);
-            ResultSet rs = stmt.executeQuery();
+            // Streamed, so the rows are only held once, in the list, rather than in the driver as well
+            forEachAppointment(appointments::add);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
 
+        return appointments;
+    }
+
+    /**
+     * Reads every appointment and hands each one to a visitor as it arrives, through a server-side cursor. Only a
+     * fetch size of rows is held in memory at a time, so whole-table work such as exports and report rebuilds
+     * takes the same memory however many appointments there are, as long as the visitor does not keep them all.
+     * The statement and connection are closed when the visitor has seen the last row or a database error occurs.
+     * <p>
+     * The visitor runs while a pooled connection is borrowed, so it should not borrow another one itself.
+     * </p>
+     *
+     * @param visitor receives each appointment, with its start and end times in UTC.
+     * @throws SQLException if a database error occurs.
+     */
+    public void forEachAppointment(Consumer<Appointment> visitor) throws SQLException {
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = JDBC.prepareStreaming(connection, ALL_APPOINTMENTS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                // Extract the appointment from the result set, this will have the start and end times in UTC
-                Appointment appointment = extractAppointmentFromResultSet(rs);
+                visitor.accept(ALL_MAPPER.map(rs));
+            }
+        }
+    }
 
-                // Add the appointment object to the list
-                appointments.add(appointment);
+    /**
+     * Fetches all appointments on the background executor.
+     *
+     * @return a future completed with all appointments.
+     */
+    public CompletableFuture<List<Appointment>> getAllAppointmentsAsync() {
+        return BackgroundTasks.supplyAsync(this::getAllAppointments);
+    }
+
+    /**
+     * Fetches the appointments that start within a half-open time range. The range is applied to the Start column
+     * directly so the database can use an index on it.
+     *
+     * @param start the inclusive lower bound of the range.
+     * @param end   the exclusive upper bound of the range.
+     * @return a list of the Appointment objects starting at or after {@code start} and before {@code end}.
+     */
+    public List<Appointment> getAppointmentsBetween(LocalDateTime start, LocalDateTime end) {
+        List<Appointment> appointments = new ArrayList<>();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(APPOINTMENTS_BETWEEN_QUERY)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(start));
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                appointments.add(VIEW_MAPPER.map(rs));
             }
         } catch (SQLException ex) {
             ex.printStackTrace();
@@ -65,48 +220,266 @@ public class AppointmentDAO {
     }
 
     /**
-     * Adds a new appointment to the database.
+     * Fetches the appointments starting in {@code [start, end)} on the background executor.
      *
-     * @param appointment the Appointment object to be added.
-     * @return true if the addition was successful, false otherwise.
+     * @param start the inclusive lower bound of the start time.
+     * @param end   the exclusive upper bound of the start time.
+     * @return a future completed with the matching appointments.
      */
-    public boolean addAppointment(Appointment appointment) {
-        try {
-          /*  // Convert the start and end times from local time to UTC before storing
-            appointment.setStart(Helper.convertToUtc(appointment.getStart()));
-            appointment.setEnd(Helper.convertToUtc(appointment.getEnd()));
+    public CompletableFuture<List<Appointment>> getAppointmentsBetweenAsync(LocalDateTime start, LocalDateTime end) {
+        return BackgroundTasks.supplyAsync(() -> getAppointmentsBetween(start, end));
+    }
+
+    /**
+     * Retrieves one page of appointments sorted by a column using keyset pagination: the page starts right after
+     * the last appointment of the previous page, so the database seeks to it through the column's index instead
+     * of counting off an offset, and each page costs the same however deep the user scrolls.
+     *
+     * @param from      the earliest start to include, or null for no lower bound.
+     * @param to        the start to stop before, or null for no upper bound; used together with {@code from}.
+     * @param sort      the column to sort by; Appointment_ID breaks ties.
+     * @param ascending true for ascending order, false for descending.
+     * @param after     the last appointment of the previous page, or null for the first page.
+     * @param limit     the maximum number of appointments to return.
+     * @return the page, in {@code sort.order(ascending)}; fewer than {@code limit} rows means it is the last page.
+     * @throws SQLException if a database error occurs.
+     */
+    public List<Appointment> getAppointmentsPage(LocalDateTime from, LocalDateTime to, AppointmentSort sort, boolean ascending,
+                                                 Appointment after, int limit) throws SQLException {
+        List<Appointment> appointments = new ArrayList<>();
+        String afterKey = after == null ? null : afterKeyPredicate(sort.getColumn(), ascending);
+        String sql = APPOINTMENTS_PAGE_SELECT + wherePredicates(from != null, afterKey) + pageOrder(sort.getColumn(), ascending);
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (from != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(from));
+                stmt.setTimestamp(index++, Timestamp.valueOf(to));
+            }
+            if (after != null) {
+                sort.bind(stmt, index++, after);
+                sort.bind(stmt, index++, after);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                appointments.add(VIEW_MAPPER.map(rs));
+            }
+        }
+
+        return appointments;
+    }
 
-           */
+    /**
+     * Counts the appointments, separately from loading them page by page.
+     *
+     * @param from the earliest start to include, or null to count every appointment.
+     * @param to   the start to stop before; used together with {@code from}.
+     * @return the number of appointments.
+     * @throws SQLException if a database error occurs.
+     */
+    public int countAppointments(LocalDateTime from, LocalDateTime to) throws SQLException {
+        String sql = COUNT_APPOINTMENTS_SELECT + wherePredicates(from != null, null);
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            if (from != null) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Builds the WHERE clause of a page or count query.
+     *
+     * @param range    true to limit the start to a range.
+     * @param afterKey the predicate that starts after a previous page, or null for the first page.
+     * @return the WHERE clause, or an empty string if there is nothing to filter.
+     */
+    private static String wherePredicates(boolean range, String afterKey) {
+        if (range && afterKey != null) {
+            return " WHERE " + START_RANGE_PREDICATE + " AND " + afterKey;
+        } else if (range) {
+            return " WHERE " + START_RANGE_PREDICATE;
+        } else if (afterKey != null) {
+            return " WHERE " + afterKey;
+        }
+        return "";
+    }
+
+    /**
+     * Builds the predicate that seeks past the last appointment of the previous page. It is written out rather
+     * than as ({@code column}, Appointment_ID) &gt; (?, ?), which MySQL does not always resolve with an index range.
+     *
+     * @param column    a column from {@link AppointmentSort}, never user input.
+     * @param ascending true for ascending order, false for descending.
+     * @return the predicate, binding the column's value twice and then the Appointment_ID.
+     */
+    private static String afterKeyPredicate(String column, boolean ascending) {
+        String comparison = ascending ? " > ?" : " < ?";
+        return "(" + column + comparison + " OR (" + column + " = ? AND Appointment_ID" + comparison + "))";
+    }
 
-            PreparedStatement stmt = prepareStatementWithAppointmentData(JDBC.getConnection().prepareStatement(ADD_APPOINTMENT_QUERY), appointment);
-            return stmt.executeUpdate() > 0;
+    /**
+     * @param column    a column from {@link AppointmentSort}, never user input.
+     * @param ascending true for ascending order, false for descending.
+     * @return the ORDER BY and LIMIT clauses of a page query.
+     */
+    private static String pageOrder(String column, boolean ascending) {
+        String direction = ascending ? "" : " DESC";
+        return " ORDER BY " + column + direction + ", Appointment_ID" + direction + " LIMIT ?";
+    }
+
+    /**
+     * Retrieves the appointments inserted or updated at or after a point in time, as recorded in Last_Update.
+     * The comparison includes the watermark itself, so a row may be returned by two consecutive calls; merging
+     * the result is expected to be idempotent.
+     *
+     * @param since the watermark, in the database server's UTC time.
+     * @return the changed appointments.
+     * @throws SQLException if a database error occurs.
+     */
+    public List<Appointment> getAppointmentsChangedSince(LocalDateTime since) throws SQLException {
+        List<Appointment> appointments = new ArrayList<>();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(APPOINTMENTS_CHANGED_SINCE_QUERY)) {
+            // Passed as a LocalDateTime so the driver does not shift it by the JVM's time zone
+            stmt.setObject(1, since);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                appointments.add(ALL_MAPPER.map(rs));
+            }
+        }
+
+        return appointments;
+    }
+
+    /**
+     * Retrieves the IDs of the appointments deleted at or after a point in time, from the tombstones written by
+     * the {@code appointments_tombstone} trigger (see {@code sql/sync.sql}).
+     *
+     * @param since the watermark, in the database server's UTC time.
+     * @return the IDs of the deleted appointments.
+     * @throws SQLException if a database error occurs, including when the tombstone table has not been created.
+     */
+    public List<Integer> getDeletedAppointmentIdsSince(LocalDateTime since) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETED_APPOINTMENT_IDS_SINCE_QUERY)) {
+            stmt.setObject(1, since);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * Adds a new appointment to the database. The ID is assigned by the database; the appointment published on
+     * the {@link DataChangeBus} carries it.
+     * <p>
+     * The customer's time slot is checked against the database in the same transaction as the insert, so an
+     * appointment booked from another workstation since {@link #findCollisions} was asked is never overlapped.
+     * </p>
+     *
+     * @param appointment the Appointment object to be added.
+     * @return true if the addition was successful, false if it failed or the slot is no longer free.
+     */
+    public boolean addAppointment(Appointment appointment) {
+        Appointment stored;
+        try (Transaction tx = Transaction.begin();
+             PreparedStatement stmt = tx.getConnection().prepareStatement(ADD_APPOINTMENT_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+            if (!lockFreeSlot(tx.getConnection(), appointment, null)) {
+                return false;
+            }
+            prepareStatementWithAppointmentData(stmt, appointment);
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet keys = stmt.getGeneratedKeys();
+            stored = keys.next() ? appointment.withId(keys.getInt(1)) : null;
+            tx.commit();
         } catch (SQLException ex) {
             ex.printStackTrace();
             return false;
         }
+
+        invalidateReports();
+        if (stored != null) {
+            intervalIndex.put(AppointmentIntervalIndex.Interval.of(stored), stored.getCustomerId());
+            DataChangeBus.publish(Appointment.class, DataChange.inserted(stored.getId(), stored));
+        } else {
+            // The driver did not report the new ID, so reload this customer's intervals on the next check
+            intervalIndex.invalidate(appointment.getCustomerId());
+        }
+        return true;
     }
 
     /**
-     * Updates an existing appointment in the database.
+     * Updates an existing appointment in the database. Like {@link #addAppointment}, the time slot is checked
+     * against the database in the same transaction as the update.
      *
      * @param appointment the Appointment object with updated details.
-     * @return true if the update was successful, false otherwise.
+     * @return true if the update was successful, false if it failed or the slot is no longer free.
      */
     public boolean updateAppointment(Appointment appointment) {
-        try {
-           /* // Convert the start and end times from local time to UTC before storing
-            appointment.setStart(Helper.convertToUtc(appointment.getStart()));
-            appointment.setEnd(Helper.convertToUtc(appointment.getEnd()));
-
-            */
-
-            PreparedStatement stmt = prepareStatementWithAppointmentData(JDBC.getConnection().prepareStatement(UPDATE_APPOINTMENT_QUERY), appointment);
-            stmt.setInt(14, appointment.getId());
-            return stmt.executeUpdate() > 0;
+        try (Transaction tx = Transaction.begin();
+             PreparedStatement stmt = tx.getConnection().prepareStatement(UPDATE_APPOINTMENT_QUERY)) {
+            if (!lockFreeSlot(tx.getConnection(), appointment, appointment.getId())) {
+                return false;
+            }
+            prepareStatementWithAppointmentData(stmt, appointment);
+            stmt.setInt(13, appointment.getId());
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            tx.commit();
         } catch (SQLException ex) {
             ex.printStackTrace();
             return false;
         }
+
+        invalidateReports();
+        intervalIndex.put(AppointmentIntervalIndex.Interval.of(appointment), appointment.getCustomerId());
+        DataChangeBus.publish(Appointment.class, DataChange.updated(appointment.getId(), appointment));
+        return true;
+    }
+
+    /**
+     * Checks, inside a transaction about to write an appointment, that the customer's time slot is still free.
+     * The customer's row is locked first, so concurrent bookings for the same customer check and write one after
+     * the other. If the slot is taken, the customer's cached intervals were stale and are reloaded on the next
+     * {@link #findCollisions}.
+     *
+     * @param connection  the transaction's connection.
+     * @param appointment the appointment about to be written.
+     * @param currentAppointmentId the ID of the appointment being updated, or null for a new one.
+     * @return true if no other appointment of the customer overlaps the slot.
+     * @throws SQLException if a database error occurs.
+     */
+    private boolean lockFreeSlot(Connection connection, Appointment appointment, Integer currentAppointmentId) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement(LOCK_CUSTOMER_QUERY)) {
+            lock.setInt(1, appointment.getCustomerId());
+            lock.executeQuery();
+        }
+        if (queryConflictingIds(connection, appointment.getCustomerId(), appointment.getStart(), appointment.getEnd(), currentAppointmentId).isEmpty()) {
+            return true;
+        }
+        intervalIndex.invalidate(appointment.getCustomerId());
+        return false;
     }
 
     /**
@@ -116,10 +489,16 @@ public class AppointmentDAO {
      * @return true if the deletion was successful, false otherwise.
      */
     public boolean deleteAppointment(int id) {
-        try {
-            PreparedStatement stmt = JDBC.getConnection().prepareStatement(DELETE_APPOINTMENT_QUERY);
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE_APPOINTMENT_QUERY)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) {
+                invalidateReports();
+                intervalIndex.remove(id);
+                DataChangeBus.publish(Appointment.class, DataChange.deleted(id));
+            }
+            return deleted;
         } catch (SQLException ex) {
             ex.printStackTrace();
             return false;
@@ -127,23 +506,133 @@ public class AppointmentDAO {
     }
 
     /**
-     * Gets the next available ID for creating a new appointment.
+     * Adds many appointments in one transaction using JDBC batching. Either every appointment is inserted or,
+     * if any row fails, none are. On success the generated IDs are in the result, in the order of the list.
      *
-     * @return the next available ID.
+     * @param appointments the appointments to add.
+     * @return the per-row outcome and generated IDs.
      */
-    public int getNextAppointmentId() {
-        int id = 0;
-        try {
-            PreparedStatement stmt = JDBC.getConnection().prepareStatement(MAX_APPOINTMENT_ID_QUERY);
-            ResultSet rs = stmt.executeQuery();
+    public BatchResult addAppointments(List<Appointment> appointments) {
+        BatchResult result = executeBatch(ADD_APPOINTMENT_QUERY, true, stmt -> {
+            for (Appointment appointment : appointments) {
+                prepareStatementWithAppointmentData(stmt, appointment);
+                stmt.addBatch();
+            }
+        });
+
+        if (result.isCommitted()) {
+            invalidateReports();
+            int[] ids = result.getGeneratedIds();
+            for (int i = 0; i < ids.length; i++) {
+                Appointment stored = appointments.get(i).withId(ids[i]);
+                intervalIndex.put(AppointmentIntervalIndex.Interval.of(stored), stored.getCustomerId());
+                DataChangeBus.publish(Appointment.class, DataChange.inserted(ids[i], stored));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Updates many appointments in one transaction using JDBC batching. Either every appointment is updated or,
+     * if any row fails, none are.
+     *
+     * @param appointments the appointments with updated details.
+     * @return the per-row outcome; a row whose appointment no longer exists reports an update count of 0.
+     */
+    public BatchResult updateAppointments(List<Appointment> appointments) {
+        BatchResult result = executeBatch(UPDATE_APPOINTMENT_QUERY, false, stmt -> {
+            for (Appointment appointment : appointments) {
+                prepareStatementWithAppointmentData(stmt, appointment);
+                stmt.setInt(13, appointment.getId());
+                stmt.addBatch();
+            }
+        });
+
+        if (result.isCommitted()) {
+            invalidateReports();
+            for (int i = 0; i < appointments.size(); i++) {
+                Appointment appointment = appointments.get(i);
+                if (result.isRowSuccessful(i)) {
+                    intervalIndex.put(AppointmentIntervalIndex.Interval.of(appointment), appointment.getCustomerId());
+                    DataChangeBus.publish(Appointment.class, DataChange.updated(appointment.getId(), appointment));
+                }
+            }
+        }
+        return result;
+    }
 
-            if (rs.next()) {
-                id = rs.getInt("max_id") + 1;
+    /**
+     * Deletes many appointments in one transaction using JDBC batching. Either every appointment is deleted or,
+     * if any row fails, none are.
+     *
+     * @param ids the IDs of the appointments to delete.
+     * @return the per-row outcome; an ID that no longer exists reports an update count of 0.
+     */
+    public BatchResult deleteAppointments(int... ids) {
+        BatchResult result = executeBatch(DELETE_APPOINTMENT_QUERY, false, stmt -> {
+            for (int id : ids) {
+                stmt.setInt(1, id);
+                stmt.addBatch();
             }
+        });
+
+        if (result.isCommitted()) {
+            invalidateReports();
+            for (int i = 0; i < ids.length; i++) {
+                intervalIndex.remove(ids[i]);
+                if (result.isRowSuccessful(i)) {
+                    DataChangeBus.publish(Appointment.class, DataChange.deleted(ids[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs a batch of parameter sets for one statement inside a transaction, rolling back if any row fails.
+     * With {@code rewriteBatchedStatements} enabled on the connection, the MySQL driver sends the batch as
+     * multi-row statements instead of one round trip per row.
+     *
+     * @param sql        the statement to batch.
+     * @param returnKeys true to collect the generated keys of inserted rows.
+     * @param binder     adds the parameter sets to the statement's batch.
+     * @return the per-row outcome.
+     */
+    private BatchResult executeBatch(String sql, boolean returnKeys, BatchBinder binder) {
+        try (Transaction tx = Transaction.begin();
+             PreparedStatement stmt = tx.getConnection().prepareStatement(sql, returnKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS)) {
+            binder.bind(stmt);
+            int[] counts;
+            try {
+                counts = stmt.executeBatch();
+            } catch (BatchUpdateException ex) {
+                // Closing the transaction rolls back the rows that did succeed
+                ex.printStackTrace();
+                return new BatchResult(false, ex.getUpdateCounts(), new int[0]);
+            }
+
+            List<Integer> keys = new ArrayList<>();
+            if (returnKeys) {
+                ResultSet rs = stmt.getGeneratedKeys();
+                while (rs.next()) {
+                    keys.add(rs.getInt(1));
+                }
+            }
+
+            tx.commit();
+            return new BatchResult(true, counts, keys.stream().mapToInt(Integer::intValue).toArray());
         } catch (SQLException ex) {
             ex.printStackTrace();
+            return new BatchResult(false, new int[0], new int[0]);
         }
-        return id;
+    }
+
+    /**
+     * Adds parameter sets to a statement's batch.
+     */
+    @FunctionalInterface
+    private interface BatchBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
     }
 
     /**
@@ -154,13 +643,13 @@ public class AppointmentDAO {
      */
     public List<Appointment> getAppointmentsByCustomer(int customerId) {
         List<Appointment> appointments = new ArrayList<>();
-        try {
-            PreparedStatement ps = conn.prepareStatement(APPOINTMENTS_BY_CUSTOMER_QUERY);
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement ps = connection.prepareStatement(APPOINTMENTS_BY_CUSTOMER_QUERY)) {
             ps.setInt(1, customerId);
             ResultSet rs = ps.executeQuery();
 
             while (rs.next()) {
-                appointments.add(extractAppointmentFromResultSet(rs));
+                appointments.add(ALL_MAPPER.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -179,49 +668,108 @@ public class AppointmentDAO {
      * @return true if the time slot is free, false otherwise.
      */
     public boolean isTimeSlotFree(int customerId, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) {
-        List<Appointment> appointments = getAppointmentsByCustomer(customerId);
+        return getConflictingAppointmentIds(customerId, start, end, currentAppointmentId).isEmpty();
+    }
 
-        for (Appointment appointment : appointments) {
-            // Skip the current appointment
-            if (currentAppointmentId != null && appointment.getId() == currentAppointmentId) {
-                continue;
-            }
+    /**
+     * Finds the customer's appointments that overlap a time slot, using a single query on
+     * (Customer_ID, Start, End) instead of loading the customer's whole history.
+     *
+     * @param customerId          the ID of the customer.
+     * @param start               the start time of the appointment.
+     * @param end                 the end time of the appointment.
+     * @param currentAppointmentId the ID of the current appointment (used when updating), or null for a new one.
+     * @return the IDs of the overlapping appointments; empty if the slot is free.
+     */
+    public List<Integer> getConflictingAppointmentIds(int customerId, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) {
+        try (Connection connection = JDBC.getConnection()) {
+            return queryConflictingIds(connection, customerId, start, end, currentAppointmentId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 
-            // Check if the new appointment overlaps with the existing one
-            if (start.isBefore(appointment.getEnd()) && end.isAfter(appointment.getStart())) {
-                // If there's an overlap, return false
-                return false;
+    /**
+     * Runs the overlap query of {@link #getConflictingAppointmentIds} on a borrowed connection.
+     *
+     * @param connection          the connection.
+     * @param customerId          the ID of the customer.
+     * @param start               the start time of the appointment.
+     * @param end                 the end time of the appointment.
+     * @param currentAppointmentId the ID of the current appointment (used when updating), or null for a new one.
+     * @return the IDs of the overlapping appointments; empty if the slot is free.
+     * @throws SQLException if a database error occurs.
+     */
+    private List<Integer> queryConflictingIds(Connection connection, int customerId, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) throws SQLException {
+        List<Integer> conflicts = new ArrayList<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement(CONFLICTING_APPOINTMENT_IDS_QUERY)) {
+            stmt.setInt(1, customerId);
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
+            stmt.setTimestamp(3, Timestamp.valueOf(start));
+            stmt.setInt(4, currentAppointmentId != null ? currentAppointmentId : -1);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                conflicts.add(rs.getInt(1));
             }
         }
 
-        // If no overlaps were found, return true
-        return true;
+        return conflicts;
+    }
+
+    /**
+     * Finds the customer's appointments that overlap a time slot using the in-memory {@link AppointmentIntervalIndex}.
+     * The customer's intervals are read from the database on first use and kept in sync with this DAO's writes,
+     * so repeated checks while the user tries different times do not touch the database. Writes made on other
+     * workstations only reach the index through {@link DeltaSync}, so this is a preview: {@link #addAppointment}
+     * and {@link #updateAppointment} check the slot against the database again before writing.
+     *
+     * @param customerId          the ID of the customer.
+     * @param start               the start time of the appointment.
+     * @param end                 the end time of the appointment.
+     * @param currentAppointmentId the ID of the current appointment (used when updating), or null for a new one.
+     * @return the colliding appointments ordered by start time; empty if the slot is free.
+     */
+    public List<AppointmentIntervalIndex.Interval> findCollisions(int customerId, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) {
+        if (!intervalIndex.isLoaded(customerId)) {
+            List<AppointmentIntervalIndex.Interval> intervals = loadCustomerIntervals(customerId);
+            if (intervals != null) {
+                // The index was written to while the intervals were read; answer from them and reload next time
+                return AppointmentIntervalIndex.findOverlaps(intervals, start, end, currentAppointmentId);
+            }
+        }
+        return intervalIndex.findOverlaps(customerId, start, end, currentAppointmentId);
     }
 
     /**
-     * Extracts appointment data from a given result set and creates an Appointment object.
+     * Reads the time slots of all of a customer's appointments into the interval index. The intervals are not
+     * installed if the index was written to while they were read, since that write may be missing from them.
      *
-     * @param rs the ResultSet object containing the appointment data.
-     * @return an Appointment object constructed using the data from the result set.
-     * @throws SQLException if there's an error accessing the result set's data.
+     * @param customerId the ID of the customer.
+     * @return the intervals read if they could not be installed, or null if they were installed or could not be
+     *         read.
      */
-    private Appointment extractAppointmentFromResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("Appointment_ID");
-        String title = rs.getString("Title");
-        String description = rs.getString("Description");
-        String location = rs.getString("Location");
-        String type = rs.getString("Type");
-        LocalDateTime start = rs.getTimestamp("Start").toLocalDateTime();
-        LocalDateTime end = rs.getTimestamp("End").toLocalDateTime();
-        LocalDateTime createDate = rs.getTimestamp("Create_Date").toLocalDateTime();
-        String createdBy = rs.getString("Created_By");
-        LocalDateTime lastUpdate = rs.getTimestamp("Last_Update").toLocalDateTime();
-        String lastUpdatedBy = rs.getString("Last_Updated_By");
-        int customerId = rs.getInt("Customer_ID");
-        int userId = rs.getInt("User_ID");
-        int contactId = rs.getInt("Contact_ID");
+    private List<AppointmentIntervalIndex.Interval> loadCustomerIntervals(int customerId) {
+        List<AppointmentIntervalIndex.Interval> intervals = new ArrayList<>();
+        long version = intervalIndex.getVersion();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INTERVALS_BY_CUSTOMER_QUERY)) {
+            stmt.setInt(1, customerId);
+            ResultSet rs = stmt.executeQuery();
 
-        return new Appointment(id, title, description, location, type, start, end, createDate, createdBy, lastUpdate, lastUpdatedBy, customerId, userId, contactId);
+            while (rs.next()) {
+                intervals.add(new AppointmentIntervalIndex.Interval(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime(), rs.getTimestamp(3).toLocalDateTime()));
+            }
+            if (!intervalIndex.load(customerId, intervals, version)) {
+                return intervals;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
     }
 
     /**
@@ -242,68 +790,147 @@ public class AppointmentDAO {
         stmt.setTimestamp(6, Timestamp.valueOf(appointment.getEnd()));  // Removed Helper.convertToUtc
         stmt.setTimestamp(7, Timestamp.valueOf(appointment.getCreateDate()));
         stmt.setString(8, appointment.getCreatedBy());
-        stmt.setTimestamp(9, Timestamp.valueOf(appointment.getLastUpdate()));
-        stmt.setString(10, appointment.getLastUpdatedBy());
-        stmt.setInt(11, appointment.getCustomerId());
-        stmt.setInt(12, appointment.getUserId());
-        stmt.setInt(13, appointment.getContactId());
+        // Last_Update is stamped by the database, so every workstation's writes share one clock
+        stmt.setString(9, appointment.getLastUpdatedBy());
+        stmt.setInt(10, appointment.getCustomerId());
+        stmt.setInt(11, appointment.getUserId());
+        stmt.setInt(12, appointment.getContactId());
 
         return stmt;
     }
 
     /**
-     * Generates a report of the number of appointments by type and month.
+     * Generates a report of the number of appointments by type and month. The report is cached until an
+     * appointment or customer changes or the report time to live elapses.
      *
      * @return a map where the key is the month and the value is another map with appointment types and their counts.
      */
     public Map<String, Map<String, Integer>> getAppointmentsCountByTypeAndMonth() {
-        String sql = "SELECT MONTH(start) as Month, type, COUNT(*) as Count FROM appointments GROUP BY MONTH(start), type";
+        try {
+            return typeAndMonthCounts.get(ALL_ROWS, key -> loadAppointmentsCountByTypeAndMonth());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Counts the appointments by the month of their start and their type, in one scan of the column store.
+     *
+     * @return the counts, keyed by month and then by type.
+     * @throws SQLException if the column store has to be loaded and a database error occurs.
+     */
+    private Map<String, Map<String, Integer>> loadAppointmentsCountByTypeAndMonth() throws SQLException {
+        AppointmentColumnStore store = getColumnStore();
+        int typeCount = store.types().size();
+        int[] counts = store.countBy(null, row -> (store.startMonth(row) - 1) * typeCount + store.typeCode(row), 12 * typeCount);
 
         Map<String, Map<String, Integer>> results = new HashMap<>();
+        for (int key = 0; key < counts.length; key++) {
+            if (counts[key] == 0) {
+                continue;
+            }
+            // Convert the month number to a full name
+            String monthName = Month.of(key / typeCount + 1).getDisplayName(TextStyle.FULL, Locale.getDefault());
+            String type = store.types().valueOf(key % typeCount);
+            results.computeIfAbsent(monthName, month -> new HashMap<>()).put(type, counts[key]);
+        }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                int monthNumber = rs.getInt("Month");
-                String type = rs.getString("type");
-                int count = rs.getInt("Count");
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Returns the appointments as a column store for reports. The store is cached until an appointment or
+     * customer changes or the report time to live elapses, so every report built in between shares one load.
+     *
+     * @return the column store.
+     * @throws SQLException if the store has to be loaded and a database error occurs.
+     */
+    public AppointmentColumnStore getColumnStore() throws SQLException {
+        return columnStores.get(ALL_ROWS, key -> loadColumnStore());
+    }
 
-                // Convert the month number to a full name
-                String monthName = Month.of(monthNumber).getDisplayName(TextStyle.FULL, Locale.getDefault());
+    /**
+     * Loads the column store in one pass over a server-side cursor, so no more than a fetch size of rows is held
+     * by the driver and no {@link Appointment} objects are created. The start and end are the stored (UTC)
+     * values, unlike the local times the appointment mappers read.
+     *
+     * @return the column store.
+     * @throws SQLException if a database error occurs.
+     */
+    private AppointmentColumnStore loadColumnStore() throws SQLException {
+        AppointmentColumnStore.Builder builder = new AppointmentColumnStore.Builder();
 
-                Map<String, Integer> monthData = results.getOrDefault(monthName, new HashMap<>());
-                monthData.put(type, count);
-                results.put(monthName, monthData);
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = JDBC.prepareStreaming(connection, COLUMN_STORE_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                // Read as stored, without the zone shift getTimestamp applies, so the month is MONTH(Start)'s
+                builder.add(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                        rs.getObject(5, LocalDateTime.class), rs.getObject(6, LocalDateTime.class),
+                        rs.getString(7), rs.getString(8));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
 
-        return results;
+        return builder.build();
+    }
+
+    /**
+     * Counts appointments by month and type on the background executor.
+     *
+     * @return a future completed with the counts, keyed by month and then by type.
+     */
+    public CompletableFuture<Map<String, Map<String, Integer>>> getAppointmentsCountByTypeAndMonthAsync() {
+        return BackgroundTasks.supplyAsync(this::getAppointmentsCountByTypeAndMonth);
     }
 
     /**
-     * Retrieves the schedule of appointments for a specific contact.
+     * Retrieves the schedule of appointments for a specific contact. Schedules are cached per contact until an
+     * appointment or customer changes or the report time to live elapses.
      *
      * @param contactName the name of the contact.
      * @return a list of all Appointment objects for the given contact.
      */
     public List<Appointment> getScheduleByContact(String contactName) {
-        String sql = "SELECT * FROM appointments WHERE Contact_ID = (SELECT Contact_ID FROM contacts WHERE Contact_Name = ?) ORDER BY start";
+        try {
+            return contactSchedules.get(contactName, this::loadScheduleByContact);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Runs the schedule by contact query.
+     *
+     * @param contactName the name of the contact.
+     * @return the contact's appointments ordered by start time.
+     * @throws SQLException if a database error occurs.
+     */
+    private List<Appointment> loadScheduleByContact(String contactName) throws SQLException {
         List<Appointment> appointments = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SCHEDULE_BY_CONTACT_QUERY)) {
             stmt.setString(1, contactName);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                Appointment appointment = extractAppointmentFromResultSet(rs);
+                Appointment appointment = SCHEDULE_MAPPER.map(rs);
                 appointments.add(appointment);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
 
-        return appointments;
+        return Collections.unmodifiableList(appointments);
+    }
+
+    /**
+     * Fetches the schedule of a contact on the background executor.
+     *
+     * @param contactName the name of the contact.
+     * @return a future completed with the contact's appointments.
+     */
+    public CompletableFuture<List<Appointment>> getScheduleByContactAsync(String contactName) {
+        return BackgroundTasks.supplyAsync(() -> getScheduleByContact(contactName));
     }
 
     /**
@@ -312,49 +939,62 @@ public class AppointmentDAO {
      * @return a list of all contact names.
      */
     public List<String> getAllContactNames() {
-        List<String> contactNames = new ArrayList<>();
-
-        try {
-            PreparedStatement stmt = JDBC.getConnection().prepareStatement(ALL_CONTACT_NAMES_QUERY);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String contactName = rs.getString("Contact_Name");
-                contactNames.add(contactName);
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
+        return ReferenceDataCache.getAllContactNames();
+    }
 
-        return contactNames;
+    /**
+     * Retrieves all contact names on the background executor.
+     *
+     * @return a future completed with the names of all contacts.
+     */
+    public CompletableFuture<List<String>> getAllContactNamesAsync() {
+        return BackgroundTasks.supplyAsync(this::getAllContactNames);
     }
 
     /**
-     * Generates a report showing the frequency of appointments for each customer.
+     * Generates a report showing the frequency of appointments for each customer. The report is cached until an
+     * appointment or customer changes or the report time to live elapses.
      *
      * @return a list of CustomerReport objects representing each customer and their appointment count.
      */
     public List<CustomerReport> getCustomerAppointmentFrequency() {
+        try {
+            return appointmentFrequency.get(ALL_ROWS, key -> loadCustomerAppointmentFrequency());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Runs the customer appointment frequency query.
+     *
+     * @return one report row per customer.
+     * @throws SQLException if a database error occurs.
+     */
+    private List<CustomerReport> loadCustomerAppointmentFrequency() throws SQLException {
         List<CustomerReport> report = new ArrayList<>();
-        String query = "SELECT c.Customer_Name as customerName, COUNT(a.Appointment_ID) as count\n" +
-                "FROM appointments a\n" +
-                "JOIN customers c ON a.Customer_ID = c.Customer_ID\n" +
-                "GROUP BY c.Customer_Name\n";
 
-        try {
-            PreparedStatement statement = connection.prepareStatement(query);
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CUSTOMER_APPOINTMENT_FREQUENCY_QUERY)) {
             ResultSet resultSet = statement.executeQuery();
 
             while (resultSet.next()) {
-                String customerName = resultSet.getString("customerName");
-                int count = resultSet.getInt("count");
+                String customerName = resultSet.getString(1);
+                int count = resultSet.getInt(2);
                 report.add(new CustomerReport(customerName, count));
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
 
-        return report;
+        return Collections.unmodifiableList(report);
+    }
+
+    /**
+     * Counts each customer's appointments on the background executor.
+     *
+     * @return a future completed with one report row per customer.
+     */
+    public CompletableFuture<List<CustomerReport>> getCustomerAppointmentFrequencyAsync() {
+        return BackgroundTasks.supplyAsync(this::getCustomerAppointmentFrequency);
     }
 }
\ No newline at end of file
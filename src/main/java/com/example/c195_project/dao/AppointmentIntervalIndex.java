@@ -0,0 +1,319 @@
+package com.example.c195_project.dao;
+
+import com.example.c195_project.model.Appointment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of appointment time slots per customer, used to answer "which appointments collide with this
+ * slot" without a database round trip. Each customer's appointments are kept in an array sorted by start time and
+ * treated as an implicit balanced tree, where every node also stores the latest end time in its subtree. An overlap
+ * query walks only the branches that can contain a collision, which is O(log n + k) for k collisions.
+ * <p>
+ * A customer's intervals are loaded by {@link AppointmentDAO} the first time they are needed and kept in sync with
+ * the DAO's writes afterwards. Every write bumps a version, and a load read from the database before a concurrent
+ * write is not installed, because the write may be missing from it (see {@link #load}).
+ * </p>
+ */
+public class AppointmentIntervalIndex {
+
+    private static final AppointmentIntervalIndex instance = new AppointmentIntervalIndex();
+
+    private final Map<Integer, CustomerIntervals> intervalsByCustomer = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> customerByAppointment = new ConcurrentHashMap<>();
+    private long version;
+
+    /**
+     * @return the index shared by every {@link AppointmentDAO}.
+     */
+    public static AppointmentIntervalIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param customerId the ID of the customer.
+     * @return true if the customer's intervals have been loaded.
+     */
+    public boolean isLoaded(int customerId) {
+        return intervalsByCustomer.containsKey(customerId);
+    }
+
+    /**
+     * @return the version to pass to {@link #load}, read before the customer's intervals are queried.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Installs the intervals read for a customer, unless the customer was loaded in the meantime or the index was
+     * written to since {@code version} was read. Such a write is ignored for a customer that is not loaded yet, or
+     * may have reached the database after the intervals were read, so installing them could lose it.
+     *
+     * @param customerId the ID of the customer.
+     * @param intervals  every appointment of the customer.
+     * @param version    the {@link #getVersion()} read before the intervals were queried.
+     * @return true if the intervals were installed or the customer was already loaded; false if they may be
+     *         stale and should only be used for the query at hand.
+     */
+    public synchronized boolean load(int customerId, List<Interval> intervals, long version) {
+        if (intervalsByCustomer.containsKey(customerId)) {
+            return true;
+        }
+        if (this.version != version) {
+            return false;
+        }
+        intervalsByCustomer.put(customerId, new CustomerIntervals(intervals));
+        for (Interval interval : intervals) {
+            customerByAppointment.put(interval.appointmentId, customerId);
+        }
+        return true;
+    }
+
+    /**
+     * Finds the customer's appointments that overlap a time slot. The customer must have been loaded.
+     *
+     * @param customerId           the ID of the customer.
+     * @param start                the start time of the slot.
+     * @param end                  the end time of the slot.
+     * @param currentAppointmentId the ID of the appointment being edited, which is never reported, or null.
+     * @return the colliding appointments ordered by start time; empty if the slot is free.
+     */
+    public List<Interval> findOverlaps(int customerId, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) {
+        return findOverlaps(intervalsByCustomer.get(customerId), start, end, currentAppointmentId);
+    }
+
+    /**
+     * Finds the intervals that overlap a time slot among intervals that were not installed in the index, such as
+     * a load refused by {@link #load}.
+     *
+     * @param intervals            the intervals to search.
+     * @param start                the start time of the slot.
+     * @param end                  the end time of the slot.
+     * @param currentAppointmentId the ID of the appointment being edited, which is never reported, or null.
+     * @return the colliding appointments ordered by start time; empty if the slot is free.
+     */
+    public static List<Interval> findOverlaps(List<Interval> intervals, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) {
+        return findOverlaps(new CustomerIntervals(intervals), start, end, currentAppointmentId);
+    }
+
+    /**
+     * @return the intervals in {@code intervals}, which may be null, that overlap the slot.
+     */
+    private static List<Interval> findOverlaps(CustomerIntervals intervals, LocalDateTime start, LocalDateTime end, Integer currentAppointmentId) {
+        List<Interval> overlaps = new ArrayList<>();
+        if (intervals != null) {
+            intervals.collect(0, intervals.size(), toEpoch(start), toEpoch(end), overlaps);
+        }
+        if (currentAppointmentId != null) {
+            overlaps.removeIf(interval -> interval.appointmentId == currentAppointmentId);
+        }
+        return overlaps;
+    }
+
+    /**
+     * Adds or moves an appointment. Customers that have not been loaded yet are left alone; they pick the
+     * appointment up when they are loaded.
+     *
+     * @param interval   the appointment's time slot.
+     * @param customerId the ID of the customer the appointment belongs to.
+     */
+    public synchronized void put(Interval interval, int customerId) {
+        version++;
+        remove(interval.appointmentId);
+        CustomerIntervals current = intervalsByCustomer.get(customerId);
+        if (current != null) {
+            List<Interval> updated = new ArrayList<>(Arrays.asList(current.intervals));
+            updated.add(interval);
+            intervalsByCustomer.put(customerId, new CustomerIntervals(updated));
+            customerByAppointment.put(interval.appointmentId, customerId);
+        }
+    }
+
+    /**
+     * Removes an appointment from whichever customer it belongs to.
+     *
+     * @param appointmentId the ID of the appointment.
+     */
+    public synchronized void remove(int appointmentId) {
+        version++;
+        Integer customerId = customerByAppointment.remove(appointmentId);
+        if (customerId == null) {
+            return;
+        }
+        CustomerIntervals current = intervalsByCustomer.get(customerId);
+        if (current != null) {
+            List<Interval> updated = new ArrayList<>(Arrays.asList(current.intervals));
+            updated.removeIf(interval -> interval.appointmentId == appointmentId);
+            intervalsByCustomer.put(customerId, new CustomerIntervals(updated));
+        }
+    }
+
+    /**
+     * Forgets a customer's intervals so they are reloaded on the next query.
+     *
+     * @param customerId the ID of the customer.
+     */
+    public synchronized void invalidate(int customerId) {
+        version++;
+        CustomerIntervals removed = intervalsByCustomer.remove(customerId);
+        if (removed != null) {
+            for (Interval interval : removed.intervals) {
+                customerByAppointment.remove(interval.appointmentId, customerId);
+            }
+        }
+    }
+
+    /**
+     * Forgets every customer's intervals.
+     */
+    public synchronized void invalidateAll() {
+        version++;
+        intervalsByCustomer.clear();
+        customerByAppointment.clear();
+    }
+
+    /**
+     * Encodes a date-time as seconds so intervals can be compared as primitives.
+     *
+     * @param dateTime the date-time to encode.
+     * @return the number of seconds since the epoch, reading the date-time as UTC.
+     */
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * The time slot of one appointment.
+     */
+    public static class Interval {
+        private final int appointmentId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final long startEpoch;
+        private final long endEpoch;
+
+        /**
+         * @param appointmentId the ID of the appointment.
+         * @param start         the start date and time of the appointment.
+         * @param end           the end date and time of the appointment.
+         */
+        public Interval(int appointmentId, LocalDateTime start, LocalDateTime end) {
+            this.appointmentId = appointmentId;
+            this.start = start;
+            this.end = end;
+            this.startEpoch = toEpoch(start);
+            this.endEpoch = toEpoch(end);
+        }
+
+        /**
+         * @param appointment an appointment.
+         * @return the appointment's interval, sharing its start, end and epoch seconds without converting them.
+         */
+        public static Interval of(Appointment appointment) {
+            return new Interval(appointment.getId(), appointment.getStart(), appointment.getEnd(),
+                    appointment.getStartEpochSecond(), appointment.getEndEpochSecond());
+        }
+
+        /**
+         * @param appointmentId the ID of the appointment.
+         * @param start         the start date and time of the appointment.
+         * @param end           the end date and time of the appointment.
+         * @param startEpoch    the start in epoch seconds at UTC.
+         * @param endEpoch      the end in epoch seconds at UTC.
+         */
+        private Interval(int appointmentId, LocalDateTime start, LocalDateTime end, long startEpoch, long endEpoch) {
+            this.appointmentId = appointmentId;
+            this.start = start;
+            this.end = end;
+            this.startEpoch = startEpoch;
+            this.endEpoch = endEpoch;
+        }
+
+        /**
+         * @return the ID of the appointment.
+         */
+        public int getAppointmentId() {
+            return appointmentId;
+        }
+
+        /**
+         * @return the start date and time of the appointment.
+         */
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        /**
+         * @return the end date and time of the appointment.
+         */
+        public LocalDateTime getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * One customer's intervals sorted by start, with the latest end time of each implicit subtree.
+     * Instances are never modified; writes build a new one.
+     */
+    private static class CustomerIntervals {
+        private final Interval[] intervals;
+        private final long[] maxEnd;
+
+        private CustomerIntervals(List<Interval> unsorted) {
+            intervals = unsorted.toArray(new Interval[0]);
+            Arrays.sort(intervals, Comparator.comparingLong(interval -> interval.startEpoch));
+            maxEnd = new long[intervals.length];
+            computeMaxEnd(0, intervals.length);
+        }
+
+        private int size() {
+            return intervals.length;
+        }
+
+        /**
+         * Fills {@link #maxEnd} for the subtree rooted at the middle of {@code [lo, hi)}.
+         *
+         * @return the latest end time in the subtree.
+         */
+        private long computeMaxEnd(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(intervals[mid].endEpoch, Math.max(computeMaxEnd(lo, mid), computeMaxEnd(mid + 1, hi)));
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        /**
+         * Adds every interval in {@code [lo, hi)} that overlaps {@code [start, end)} to {@code out}, in start order.
+         */
+        private void collect(int lo, int hi, long start, long end, List<Interval> out) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] <= start) {
+                // Nothing in this subtree ends after the slot starts
+                return;
+            }
+            collect(lo, mid, start, end, out);
+            Interval interval = intervals[mid];
+            if (interval.startEpoch < end) {
+                if (interval.endEpoch > start) {
+                    out.add(interval);
+                }
+                // Intervals to the right start even later, so only look there if this one started before the end
+                collect(mid + 1, hi, start, end, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.c195_project.dao;
+
+import com.example.c195_project.model.Appointment;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The columns the appointments table can be sorted by. Each one names the database column the page query orders
+ * by, so the ORDER BY clause is only ever built from this list and never from text the user typed; each column
+ * has an index (see {@code sql/indexes.sql}) so a sorted page is read in index order instead of sorting the table.
+ * Ties are broken by Appointment_ID, which makes every order total and lets pages follow each other by keyset.
+ */
+public enum AppointmentSort {
+    ID("Appointment_ID", intKey(Appointment::getId), Comparator.comparingInt(Appointment::getId)),
+    TITLE("Title", textKey(Appointment::getTitle), Comparator.comparing(Appointment::getTitle, String.CASE_INSENSITIVE_ORDER)),
+    DESCRIPTION("Description", textKey(Appointment::getDescription), Comparator.comparing(Appointment::getDescription, String.CASE_INSENSITIVE_ORDER)),
+    LOCATION("Location", textKey(Appointment::getLocation), Comparator.comparing(Appointment::getLocation, String.CASE_INSENSITIVE_ORDER)),
+    CONTACT("Contact_ID", intKey(Appointment::getContactId), Comparator.comparingInt(Appointment::getContactId)),
+    TYPE("Type", textKey(Appointment::getType), Comparator.comparing(Appointment::getType, String.CASE_INSENSITIVE_ORDER)),
+    START("Start", timestampKey(Appointment::getStart), Comparator.comparingLong(Appointment::getStartEpochSecond)),
+    END("End", timestampKey(Appointment::getEnd), Comparator.comparingLong(Appointment::getEndEpochSecond)),
+    CUSTOMER("Customer_ID", intKey(Appointment::getCustomerId), Comparator.comparingInt(Appointment::getCustomerId)),
+    USER("User_ID", intKey(Appointment::getUserId), Comparator.comparingInt(Appointment::getUserId));
+
+    private final String column;
+    private final KeyBinder key;
+    private final Comparator<Appointment> comparator;
+
+    /**
+     * @param column     the database column.
+     * @param key        binds the column's value of an appointment, to seek past the previous page.
+     * @param comparator orders appointments by the column the way the database does; text is compared ignoring
+     *                   case, like the schema's default collation.
+     */
+    AppointmentSort(String column, KeyBinder key, Comparator<Appointment> comparator) {
+        this.column = column;
+        this.key = key;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return the database column.
+     */
+    String getColumn() {
+        return column;
+    }
+
+    /**
+     * Binds an appointment's value of the column to a statement parameter, converted the same way the DAO writes
+     * the column.
+     *
+     * @param stmt        the statement.
+     * @param index       the parameter index.
+     * @param appointment an appointment.
+     * @throws SQLException if the parameter cannot be set.
+     */
+    void bind(PreparedStatement stmt, int index, Appointment appointment) throws SQLException {
+        key.bind(stmt, index, appointment);
+    }
+
+    /**
+     * @param ascending true for ascending order, false for descending.
+     * @return the order of the pages sorted by this column, Appointment_ID breaking ties in the same direction.
+     */
+    public Comparator<Appointment> order(boolean ascending) {
+        Comparator<Appointment> order = comparator.thenComparingInt(Appointment::getId);
+        return ascending ? order : order.reversed();
+    }
+
+    /**
+     * @param key reads an int column from an appointment.
+     * @return a binder setting the column's value as an int.
+     */
+    private static KeyBinder intKey(ToIntFunction<Appointment> key) {
+        return (stmt, index, appointment) -> stmt.setInt(index, key.applyAsInt(appointment));
+    }
+
+    /**
+     * @param key reads a text column from an appointment.
+     * @return a binder setting the column's value as a string.
+     */
+    private static KeyBinder textKey(Function<Appointment, String> key) {
+        return (stmt, index, appointment) -> stmt.setString(index, key.apply(appointment));
+    }
+
+    /**
+     * @param key reads a timestamp column from an appointment.
+     * @return a binder setting the column's value as a {@link Timestamp}, like the range and the stored column,
+     *         so the driver converts it with the same time zone.
+     */
+    private static KeyBinder timestampKey(Function<Appointment, LocalDateTime> key) {
+        return (stmt, index, appointment) -> stmt.setTimestamp(index, Timestamp.valueOf(key.apply(appointment)));
+    }
+
+    /**
+     * Binds a column's value of an appointment to a statement parameter.
+     */
+    @FunctionalInterface
+    private interface KeyBinder {
+        void bind(PreparedStatement stmt, int index, Appointment appointment) throws SQLException;
+    }
+}
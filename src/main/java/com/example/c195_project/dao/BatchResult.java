@@ -0,0 +1,64 @@
+package com.example.c195_project.dao;
+
+import java.sql.Statement;
+
+/**
+ * The outcome of a batch write executed in a single transaction: whether the transaction was committed,
+ * the driver's per-row update counts and, for inserts, the generated keys.
+ */
+public class BatchResult {
+    private final boolean committed;
+    private final int[] updateCounts;
+    private final int[] generatedIds;
+
+    /**
+     * Constructs a new BatchResult instance.
+     *
+     * @param committed    true if the transaction was committed, false if it was rolled back.
+     * @param updateCounts the per-row update counts reported by the driver, in submission order.
+     * @param generatedIds the generated keys of inserted rows in submission order, or an empty array.
+     */
+    public BatchResult(boolean committed, int[] updateCounts, int[] generatedIds) {
+        this.committed = committed;
+        this.updateCounts = updateCounts;
+        this.generatedIds = generatedIds;
+    }
+
+    /**
+     * @return true if every row was written and the transaction was committed.
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return the per-row update counts. {@link Statement#SUCCESS_NO_INFO} means the row succeeded but the driver
+     *         (for example with {@code rewriteBatchedStatements}) did not report a count, and
+     *         {@link Statement#EXECUTE_FAILED} marks the row that failed.
+     */
+    public int[] getUpdateCounts() {
+        return updateCounts;
+    }
+
+    /**
+     * @return the generated keys of inserted rows, in submission order.
+     */
+    public int[] getGeneratedIds() {
+        return generatedIds;
+    }
+
+    /**
+     * Tells whether a row was written. Rows of a rolled-back batch are never written.
+     *
+     * @param row the row's position in the batch.
+     * @return true if the transaction was committed and the row affected at least one record or succeeded without
+     *         a count.
+     */
+    public boolean isRowSuccessful(int row) {
+        if (!committed || row >= updateCounts.length) {
+            return false;
+        }
+        int count = updateCounts[row];
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+}
@@ -1,35 +1,73 @@
 package com.example.c195_project.dao;
 
 import com.example.c195_project.model.Customer;
+import com.example.c195_project.helper.BackgroundTasks;
 import com.example.c195_project.helper.JDBC;
+import com.example.c195_project.helper.ReferenceDataCache;
+import com.example.c195_project.helper.StringDictionary;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object (DAO) class for performing CRUD operations related to the Customer entity.
+ * The {@code ...Async} read methods run on {@link BackgroundTasks} and can be composed with other queries.
+ * Every committed write is published on the {@link DataChangeBus}.
  */
 public class CustomerDAO {
 
-    private static final String CUSTOMER_BY_ID_QUERY = "SELECT * FROM customers WHERE Customer_ID = ?";
-    private static final String ALL_CUSTOMERS_QUERY = "SELECT * FROM customers";
-    private static final String UPDATE_CUSTOMER_QUERY = "UPDATE customers SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, Division_ID = ? WHERE Customer_ID = ?";
-    private static final String ADD_CUSTOMER_QUERY = "INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Division_ID) VALUES (?, ?, ?, ?, ?)";
+    // The customers table shows every column, so there is one projection; CUSTOMER_MAPPER reads it by position
+    private static final String CUSTOMER_COLUMNS = "customers.Customer_ID, customers.Customer_Name, customers.Address, customers.Postal_Code, " +
+            "customers.Phone, customers.Create_Date, customers.Created_By, customers.Last_Update, customers.Last_Updated_By, " +
+            "customers.Division_ID, first_level_divisions.Division, countries.Country";
+    private static final String CUSTOMER_WITH_LOCATION_SELECT = "SELECT " + CUSTOMER_COLUMNS + " FROM customers " +
+            "JOIN first_level_divisions ON customers.Division_ID = first_level_divisions.Division_ID " +
+            "JOIN countries ON first_level_divisions.Country_ID = countries.Country_ID";
+    private static final String CUSTOMER_BY_ID_QUERY = CUSTOMER_WITH_LOCATION_SELECT + " WHERE customers.Customer_ID = ?";
+    private static final String ALL_CUSTOMERS_QUERY = CUSTOMER_WITH_LOCATION_SELECT;
+    private static final String COUNT_CUSTOMERS_QUERY = "SELECT COUNT(*) FROM customers";
+    private static final String CUSTOMERS_CHANGED_SINCE_QUERY = CUSTOMER_WITH_LOCATION_SELECT + " WHERE customers.Last_Update >= ?";
+    private static final String DELETED_CUSTOMER_IDS_SINCE_QUERY = "SELECT Row_ID FROM deleted_rows WHERE Table_Name = 'customers' AND Deleted_At >= ?";
+    // Last_Update is stamped by the database, so every workstation's writes share one clock
+    private static final String UPDATE_CUSTOMER_QUERY = "UPDATE customers SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, Division_ID = ?, Last_Update = UTC_TIMESTAMP() WHERE Customer_ID = ?";
+    private static final String ADD_CUSTOMER_QUERY = "INSERT INTO customers (Customer_Name, Address, Postal_Code, Phone, Division_ID, Create_Date, Created_By, Last_Update, Last_Updated_By) VALUES (?, ?, ?, ?, ?, UTC_TIMESTAMP(), ?, UTC_TIMESTAMP(), ?)";
     private static final String DELETE_APPOINTMENTS_QUERY = "DELETE FROM appointments WHERE Customer_ID = ?";
     private static final String DELETE_CUSTOMER_QUERY = "DELETE FROM customers WHERE Customer_ID = ?";
-
-    private Connection conn;
+    private static final String DELETE_APPOINTMENTS_FOR_CUSTOMERS_QUERY = "DELETE FROM appointments WHERE Customer_ID IN ";
+    private static final String DELETE_CUSTOMERS_QUERY = "DELETE FROM customers WHERE Customer_ID IN ";
+    private static final String LOCK_CUSTOMERS_QUERY = "SELECT Customer_ID FROM customers WHERE Customer_ID IN ";
 
     /**
-     * Initializes the CustomerDAO with a database connection.
+     * Reads a customer, with the names of its division and country, from a row of {@link #CUSTOMER_COLUMNS}.
      */
-    public CustomerDAO() {
-        conn = JDBC.getConnection();
-    }
+    private static final RowMapper<Customer> CUSTOMER_MAPPER = rs -> {
+        Customer customer = new Customer(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                // Read as stored, without a time zone shift, like the DeltaSync watermark they are compared with
+                rs.getObject(6, LocalDateTime.class),
+                StringDictionary.intern(rs.getString(7)),
+                rs.getObject(8, LocalDateTime.class),
+                StringDictionary.intern(rs.getString(9)),
+                rs.getInt(10)
+        );
+        customer.setState(StringDictionary.intern(rs.getString(11)));
+        customer.setCountry(StringDictionary.intern(rs.getString(12)));
+
+        return customer;
+    };
+    private static final int DELETE_CHUNK_SIZE = 500;
 
     /**
      * Retrieves a customer by its ID.
@@ -39,37 +77,192 @@ public class CustomerDAO {
      * @throws SQLException if a database error occurs.
      */
     public Customer getCustomer(int id) throws SQLException {
-        PreparedStatement stmt = conn.prepareStatement(CUSTOMER_BY_ID_QUERY);
-        stmt.setInt(1, id);
+        try (Connection connection = JDBC.getConnection()) {
+            return getCustomer(connection, id);
+        }
+    }
 
-        ResultSet rs = stmt.executeQuery();
+    /**
+     * Retrieves a customer by its ID on a connection that is already borrowed.
+     *
+     * @param connection the connection.
+     * @param id         the ID of the customer to retrieve.
+     * @return the customer object if found, otherwise null.
+     * @throws SQLException if a database error occurs.
+     */
+    private Customer getCustomer(Connection connection, int id) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(CUSTOMER_BY_ID_QUERY)) {
+            stmt.setInt(1, id);
+
+            ResultSet rs = stmt.executeQuery();
 
-        if (rs.next()) {
-            return extractCustomerFromResultSet(rs);
+            if (rs.next()) {
+                return CUSTOMER_MAPPER.map(rs);
+            }
         }
 
         return null;
     }
 
     /**
-     * Retrieves all customers from the database.
+     * Retrieves a customer by its ID on the background executor.
+     *
+     * @param id the ID of the customer to retrieve.
+     * @return a future completed with the customer, or null if not found.
+     */
+    public CompletableFuture<Customer> getCustomerAsync(int id) {
+        return BackgroundTasks.supplyAsync(() -> getCustomer(id));
+    }
+
+    /**
+     * Retrieves all customers from the database, together with the names of their division and country,
+     * in a single query.
      *
      * @return a list of all customers.
      * @throws SQLException if a database error occurs.
      */
     public List<Customer> getAllCustomers() throws SQLException {
         List<Customer> customers = new ArrayList<>();
-        PreparedStatement stmt = conn.prepareStatement(ALL_CUSTOMERS_QUERY);
+        forEachCustomer(customers::add);
+        return customers;
+    }
+
+    /**
+     * Reads every customer, together with the names of their division and country, and hands each one to a
+     * visitor as it arrives, through a server-side cursor. Only a fetch size of rows is held in memory at a time.
+     * The statement and connection are closed when the visitor has seen the last row or a database error occurs.
+     * <p>
+     * The visitor runs while a pooled connection is borrowed, so it should not borrow another one itself.
+     * </p>
+     *
+     * @param visitor receives each customer.
+     * @throws SQLException if a database error occurs.
+     */
+    public void forEachCustomer(Consumer<Customer> visitor) throws SQLException {
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = JDBC.prepareStreaming(connection, ALL_CUSTOMERS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                visitor.accept(CUSTOMER_MAPPER.map(rs));
+            }
+        }
+    }
+
+    /**
+     * Retrieves all customers on the background executor.
+     *
+     * @return a future completed with all customers, or completed exceptionally if a database error occurs.
+     */
+    public CompletableFuture<List<Customer>> getAllCustomersAsync() {
+        return BackgroundTasks.supplyAsync(this::getAllCustomers);
+    }
+
+    /**
+     * Retrieves one page of customers sorted by a column using keyset pagination: the page starts right after the
+     * last customer of the previous page, so the database seeks to it through the column's index instead of
+     * counting off an offset.
+     *
+     * @param sort      the column to sort by; Customer_ID breaks ties.
+     * @param ascending true for ascending order, false for descending.
+     * @param after     the last customer of the previous page, or null for the first page.
+     * @param limit     the maximum number of customers to return.
+     * @return the page, in {@code sort.order(ascending)}; fewer than {@code limit} rows means it is the last page.
+     * @throws SQLException if a database error occurs.
+     */
+    public List<Customer> getCustomersPage(CustomerSort sort, boolean ascending, Customer after, int limit) throws SQLException {
+        List<Customer> customers = new ArrayList<>();
+        String column = sort.getColumn();
+        String comparison = ascending ? " > ?" : " < ?";
+        String direction = ascending ? "" : " DESC";
+        // Written out rather than as a row comparison, which MySQL does not always resolve with an index range
+        String sql = CUSTOMER_WITH_LOCATION_SELECT
+                + (after == null ? "" : " WHERE (" + column + comparison + " OR (" + column + " = ? AND customers.Customer_ID" + comparison + "))")
+                + " ORDER BY " + column + direction + ", customers.Customer_ID" + direction + " LIMIT ?";
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (after != null) {
+                sort.bind(stmt, index++, after);
+                sort.bind(stmt, index++, after);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                customers.add(CUSTOMER_MAPPER.map(rs));
+            }
+        }
+
+        return customers;
+    }
+
+    /**
+     * Counts the customers, separately from loading them page by page.
+     *
+     * @return the number of customers.
+     * @throws SQLException if a database error occurs.
+     */
+    public int countCustomers() throws SQLException {
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(COUNT_CUSTOMERS_QUERY)) {
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Retrieves the customers inserted or updated at or after a point in time, as recorded in Last_Update,
+     * together with the names of their division and country. The comparison includes the watermark itself, so
+     * a row may be returned by two consecutive calls; merging the result is expected to be idempotent.
+     *
+     * @param since the watermark, in the database server's UTC time.
+     * @return the changed customers.
+     * @throws SQLException if a database error occurs.
+     */
+    public List<Customer> getCustomersChangedSince(LocalDateTime since) throws SQLException {
+        List<Customer> customers = new ArrayList<>();
 
-        ResultSet rs = stmt.executeQuery();
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(CUSTOMERS_CHANGED_SINCE_QUERY)) {
+            // Passed as a LocalDateTime so the driver does not shift it by the JVM's time zone
+            stmt.setObject(1, since);
+            ResultSet rs = stmt.executeQuery();
 
-        while (rs.next()) {
-            customers.add(extractCustomerFromResultSet(rs));
+            while (rs.next()) {
+                customers.add(CUSTOMER_MAPPER.map(rs));
+            }
         }
 
         return customers;
     }
 
+    /**
+     * Retrieves the IDs of the customers deleted at or after a point in time, from the tombstones written by the
+     * {@code customers_tombstone} trigger (see {@code sql/sync.sql}).
+     *
+     * @param since the watermark, in the database server's UTC time.
+     * @return the IDs of the deleted customers.
+     * @throws SQLException if a database error occurs, including when the tombstone table has not been created.
+     */
+    public List<Integer> getDeletedCustomerIdsSince(LocalDateTime since) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETED_CUSTOMER_IDS_SINCE_QUERY)) {
+            stmt.setObject(1, since);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+
+        return ids;
+    }
+
     /**
      * Updates the details of a specific customer in the database.
      *
@@ -78,74 +271,185 @@ public class CustomerDAO {
      * @throws SQLException if a database error occurs.
      */
     public boolean updateCustomer(Customer customer) throws SQLException {
-        PreparedStatement stmt = prepareStatementWithCustomerData(conn.prepareStatement(UPDATE_CUSTOMER_QUERY), customer);
-        stmt.setInt(6, customer.getId());
+        Customer stored;
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE_CUSTOMER_QUERY)) {
+            prepareStatementWithCustomerData(stmt, customer);
+            stmt.setInt(6, customer.getId());
 
-        int updated = stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            stored = readStored(connection, customer);
+        }
 
-        return updated > 0;
+        AppointmentDAO.invalidateReports();
+        DataChangeBus.publish(Customer.class, DataChange.updated(stored.getId(), stored));
+        return true;
     }
 
     /**
-     * Inserts a new customer into the database.
+     * Inserts a new customer into the database. The ID is assigned by the database and copied back into the
+     * Customer object; the creation and last update times are set to the database's current UTC time, attributed
+     * to the customer's creator.
      *
      * @param customer the customer object to add.
      * @return true if the insertion was successful, otherwise false.
      * @throws SQLException if a database error occurs.
      */
     public boolean addCustomer(Customer customer) throws SQLException {
-        PreparedStatement stmt = prepareStatementWithCustomerData(conn.prepareStatement(ADD_CUSTOMER_QUERY), customer);
+        Customer stored;
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(ADD_CUSTOMER_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+            prepareStatementWithCustomerData(stmt, customer);
+            stmt.setString(6, customer.getCreatedBy());
+            stmt.setString(7, customer.getCreatedBy());
 
-        int inserted = stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet keys = stmt.getGeneratedKeys();
+            if (keys.next()) {
+                customer.setId(keys.getInt(1));
+                stored = readStored(connection, customer);
+            } else {
+                stored = null;
+            }
+        }
 
-        return inserted > 0;
+        ReferenceDataCache.invalidateCustomers();
+        AppointmentDAO.invalidateReports();
+        if (stored != null) {
+            DataChangeBus.publish(Customer.class, DataChange.inserted(stored.getId(), stored));
+        }
+        return true;
     }
 
     /**
      * Deletes a customer by its ID. This method also deletes all appointments associated with the customer.
+     * Both deletes run in one transaction, so either the customer and its appointments are all removed or
+     * nothing is.
      *
      * @param customerId the ID of the customer to delete.
+     * @return true if the customer was deleted, false if it did not exist or the transaction was rolled back.
      */
-    public void deleteCustomer(int customerId) {
-        try {
-            Connection connection = JDBC.getConnection();
-
+    public boolean deleteCustomer(int customerId) {
+        boolean deleted;
+        try (Transaction tx = Transaction.begin();
+             PreparedStatement deleteAppointments = tx.getConnection().prepareStatement(DELETE_APPOINTMENTS_QUERY);
+             PreparedStatement deleteCustomer = tx.getConnection().prepareStatement(DELETE_CUSTOMER_QUERY)) {
             // First, delete all appointments for the customer
-            PreparedStatement deleteAppointments = connection.prepareStatement(DELETE_APPOINTMENTS_QUERY);
             deleteAppointments.setInt(1, customerId);
             deleteAppointments.executeUpdate();
 
             // Then, delete the customer
-            PreparedStatement deleteCustomer = connection.prepareStatement(DELETE_CUSTOMER_QUERY);
             deleteCustomer.setInt(1, customerId);
-            deleteCustomer.executeUpdate();
+            deleted = deleteCustomer.executeUpdate() > 0;
+            tx.commit();
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
+        }
+        if (!deleted) {
+            return false;
         }
+
+        ReferenceDataCache.invalidateCustomers();
+        AppointmentDAO.invalidateReports();
+        AppointmentIntervalIndex.getInstance().invalidate(customerId);
+        DataChangeBus.publish(Customer.class, DataChange.deleted(customerId));
+        return true;
     }
 
     /**
-     * Converts a ResultSet row into a Customer object.
+     * Deletes many customers and all of their appointments in one transaction. The IDs are sent in chunks of
+     * {@value #DELETE_CHUNK_SIZE} with set-based {@code IN (...)} deletes, so removing n customers takes about
+     * 2n / {@value #DELETE_CHUNK_SIZE} statements instead of 2n. The customers of each chunk that still exist are
+     * locked and read first, and only those are published as deleted.
      *
-     * @param rs the ResultSet containing customer data.
-     * @return a Customer object.
-     * @throws SQLException if a database error occurs.
+     * @param customerIds the IDs of the customers to delete.
+     * @return true if the transaction was committed, false if it was rolled back.
      */
-    private Customer extractCustomerFromResultSet(ResultSet rs) throws SQLException {
-        return new Customer(
-                rs.getInt("Customer_ID"),
-                rs.getString("Customer_Name"),
-                rs.getString("Address"),
-                rs.getString("Postal_Code"),
-                rs.getString("Phone"),
-                rs.getString("Create_Date"),
-                rs.getString("Created_By"),
-                rs.getString("Last_Update"),
-                rs.getString("Last_Updated_By"),
-                rs.getInt("Division_ID")
-        );
+    public boolean deleteCustomers(int... customerIds) {
+        if (customerIds.length == 0) {
+            return true;
+        }
+
+        List<Integer> deleted = new ArrayList<>();
+        try (Transaction tx = Transaction.begin()) {
+            for (int from = 0; from < customerIds.length; from += DELETE_CHUNK_SIZE) {
+                int to = Math.min(from + DELETE_CHUNK_SIZE, customerIds.length);
+                String placeholders = inPlaceholders(to - from);
+
+                // Appointments reference their customer, so they go first
+                try (PreparedStatement lockCustomers = tx.getConnection().prepareStatement(LOCK_CUSTOMERS_QUERY + placeholders + " FOR UPDATE");
+                     PreparedStatement deleteAppointments = tx.getConnection().prepareStatement(DELETE_APPOINTMENTS_FOR_CUSTOMERS_QUERY + placeholders);
+                     PreparedStatement deleteCustomers = tx.getConnection().prepareStatement(DELETE_CUSTOMERS_QUERY + placeholders)) {
+                    for (int i = from; i < to; i++) {
+                        lockCustomers.setInt(i - from + 1, customerIds[i]);
+                        deleteAppointments.setInt(i - from + 1, customerIds[i]);
+                        deleteCustomers.setInt(i - from + 1, customerIds[i]);
+                    }
+                    ResultSet rs = lockCustomers.executeQuery();
+                    while (rs.next()) {
+                        deleted.add(rs.getInt(1));
+                    }
+                    deleteAppointments.executeUpdate();
+                    deleteCustomers.executeUpdate();
+                }
+            }
+            tx.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+
+        if (deleted.isEmpty()) {
+            return true;
+        }
+        ReferenceDataCache.invalidateCustomers();
+        AppointmentDAO.invalidateReports();
+        for (int customerId : deleted) {
+            AppointmentIntervalIndex.getInstance().invalidate(customerId);
+            DataChangeBus.publish(Customer.class, DataChange.deleted(customerId));
+        }
+        return true;
     }
 
+    /**
+     * Reads an inserted or updated customer back as it is now stored, on the connection that wrote it rather than
+     * a second borrowed one, so listeners get the division and country names and the timestamps the form does
+     * not know; if that read fails, the customer as written is returned instead.
+     *
+     * @param connection the connection the customer was written on.
+     * @param customer   the customer as written, with its ID.
+     * @return the customer to publish.
+     */
+    private Customer readStored(Connection connection, Customer customer) {
+        Customer stored = null;
+        try {
+            stored = getCustomer(connection, customer.getId());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return stored == null ? customer : stored;
+    }
+
+    /**
+     * Builds the parameter list of an {@code IN} clause.
+     *
+     * @param count the number of parameters.
+     * @return {@code (?, ?, ...)} with {@code count} placeholders.
+     */
+    private static String inPlaceholders(int count) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(')').toString();
+    }
+
+
     /**
      * Prepares a SQL statement with data from a Customer object.
      *
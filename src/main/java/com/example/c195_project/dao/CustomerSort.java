@@ -0,0 +1,116 @@
+package com.example.c195_project.dao;
+
+import com.example.c195_project.model.Customer;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The columns the customers table can be sorted by. Each one names the database column the page query orders by,
+ * so the ORDER BY clause is only ever built from this list and never from text the user typed; each column has an
+ * index (see {@code sql/indexes.sql}). Ties are broken by Customer_ID.
+ * <p>
+ * The state and country come from joined tables and cannot be read in index order together with the customers,
+ * so they are not listed.
+ * </p>
+ */
+public enum CustomerSort {
+    ID("customers.Customer_ID", intKey(Customer::getId), Comparator.comparingInt(Customer::getId)),
+    NAME("customers.Customer_Name", textKey(Customer::getName), text(Customer::getName)),
+    ADDRESS("customers.Address", textKey(Customer::getAddress), text(Customer::getAddress)),
+    POSTAL_CODE("customers.Postal_Code", textKey(Customer::getPostalCode), text(Customer::getPostalCode)),
+    PHONE("customers.Phone", textKey(Customer::getPhone), text(Customer::getPhone)),
+    CREATE_DATE("customers.Create_Date", dateTimeKey(Customer::getCreateDate), Comparator.comparingLong(Customer::getCreateDateEpochSecond)),
+    CREATED_BY("customers.Created_By", textKey(Customer::getCreatedBy), text(Customer::getCreatedBy)),
+    LAST_UPDATE("customers.Last_Update", dateTimeKey(Customer::getLastUpdate), Comparator.comparingLong(Customer::getLastUpdateEpochSecond)),
+    LAST_UPDATED_BY("customers.Last_Updated_By", textKey(Customer::getLastUpdatedBy), text(Customer::getLastUpdatedBy));
+
+    private final String column;
+    private final KeyBinder key;
+    private final Comparator<Customer> comparator;
+
+    /**
+     * @param column     the database column, qualified with its table.
+     * @param key        binds the column's value of a customer, to seek past the previous page.
+     * @param comparator orders customers by the column the way the database does.
+     */
+    CustomerSort(String column, KeyBinder key, Comparator<Customer> comparator) {
+        this.column = column;
+        this.key = key;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return the database column, qualified with its table.
+     */
+    String getColumn() {
+        return column;
+    }
+
+    /**
+     * Binds a customer's value of the column to a statement parameter, converted the same way the DAO reads the
+     * column.
+     *
+     * @param stmt     the statement.
+     * @param index    the parameter index.
+     * @param customer a customer.
+     * @throws SQLException if the parameter cannot be set.
+     */
+    void bind(PreparedStatement stmt, int index, Customer customer) throws SQLException {
+        key.bind(stmt, index, customer);
+    }
+
+    /**
+     * @param ascending true for ascending order, false for descending.
+     * @return the order of the pages sorted by this column, Customer_ID breaking ties in the same direction.
+     */
+    public Comparator<Customer> order(boolean ascending) {
+        Comparator<Customer> order = comparator.thenComparingInt(Customer::getId);
+        return ascending ? order : order.reversed();
+    }
+
+    /**
+     * @param text reads a text column from a customer.
+     * @return a comparator of the column ignoring case, like the schema's default collation.
+     */
+    private static Comparator<Customer> text(Function<Customer, String> text) {
+        return Comparator.comparing(text, String.CASE_INSENSITIVE_ORDER);
+    }
+
+    /**
+     * @param key reads an int column from a customer.
+     * @return a binder setting the column's value as an int.
+     */
+    private static KeyBinder intKey(ToIntFunction<Customer> key) {
+        return (stmt, index, customer) -> stmt.setInt(index, key.applyAsInt(customer));
+    }
+
+    /**
+     * @param key reads a text column from a customer.
+     * @return a binder setting the column's value as a string.
+     */
+    private static KeyBinder textKey(Function<Customer, String> key) {
+        return (stmt, index, customer) -> stmt.setString(index, key.apply(customer));
+    }
+
+    /**
+     * @param key reads an audit timestamp from a customer.
+     * @return a binder setting the column's value as a {@link LocalDateTime}, which the driver passes through
+     *         without a time zone conversion, as the mapper reads it.
+     */
+    private static KeyBinder dateTimeKey(Function<Customer, LocalDateTime> key) {
+        return (stmt, index, customer) -> stmt.setObject(index, key.apply(customer));
+    }
+
+    /**
+     * Binds a column's value of a customer to a statement parameter.
+     */
+    @FunctionalInterface
+    private interface KeyBinder {
+        void bind(PreparedStatement stmt, int index, Customer customer) throws SQLException;
+    }
+}
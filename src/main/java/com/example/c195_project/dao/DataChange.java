@@ -0,0 +1,90 @@
+package com.example.c195_project.dao;
+
+/**
+ * Describes one row written by a DAO: which row, and whether it was inserted, updated or deleted.
+ * Inserted and updated rows carry the entity as it is now stored, so listeners can apply the change without
+ * reading it back; deleted rows only carry their ID.
+ *
+ * @param <T> the type of the entity, such as {@link com.example.c195_project.model.Appointment}.
+ */
+public class DataChange<T> {
+
+    /**
+     * What happened to the row.
+     */
+    public enum Kind {
+        INSERTED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Kind kind;
+    private final int id;
+    private final T entity;
+
+    /**
+     * @param kind   what happened to the row.
+     * @param id     the ID of the row.
+     * @param entity the entity as it is now stored, or null for a deleted row.
+     */
+    private DataChange(Kind kind, int id, T entity) {
+        this.kind = kind;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    /**
+     * @param id     the ID assigned to the new row.
+     * @param entity the inserted entity.
+     * @param <T>    the type of the entity.
+     * @return a change describing an inserted row.
+     */
+    public static <T> DataChange<T> inserted(int id, T entity) {
+        return new DataChange<>(Kind.INSERTED, id, entity);
+    }
+
+    /**
+     * @param id     the ID of the row.
+     * @param entity the entity with its new values.
+     * @param <T>    the type of the entity.
+     * @return a change describing an updated row.
+     */
+    public static <T> DataChange<T> updated(int id, T entity) {
+        return new DataChange<>(Kind.UPDATED, id, entity);
+    }
+
+    /**
+     * @param id  the ID of the deleted row.
+     * @param <T> the type of the entity.
+     * @return a change describing a deleted row.
+     */
+    public static <T> DataChange<T> deleted(int id) {
+        return new DataChange<>(Kind.DELETED, id, null);
+    }
+
+    /**
+     * @return what happened to the row.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the ID of the row.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the entity as it is now stored, or null if the row was deleted.
+     */
+    public T getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " #" + id;
+    }
+}
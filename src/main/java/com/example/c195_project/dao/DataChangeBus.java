@@ -0,0 +1,70 @@
+package com.example.c195_project.dao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells interested parts of the application about every row the DAOs write, so screens can patch the rows
+ * they show instead of reloading whole tables. Changes are published after the write has been committed, on the
+ * thread that made the write; listeners that touch the user interface must hand the change over to the JavaFX
+ * application thread themselves.
+ * <p>
+ * Deleting a customer also deletes its appointments. That is published as a single customer change, not as one
+ * change per appointment.
+ * </p>
+ */
+public class DataChangeBus {
+
+    private static final Map<Class<?>, List<Consumer<?>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Starts sending the changes of one entity type to a listener.
+     *
+     * @param type     the type of the entity, such as {@code Appointment.class}.
+     * @param listener receives each change on the thread that made the write.
+     * @param <T>      the type of the entity.
+     * @return the subscription, which must be cancelled when the listener is no longer needed.
+     */
+    public static <T> Subscription subscribe(Class<T> type, Consumer<DataChange<T>> listener) {
+        List<Consumer<?>> typeListeners = listeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>());
+        typeListeners.add(listener);
+        return () -> typeListeners.remove(listener);
+    }
+
+    /**
+     * Sends a change to every listener of its entity type. A listener that throws is reported and does not
+     * stop the others, nor the write that published the change.
+     *
+     * @param type   the type of the entity.
+     * @param change the change.
+     * @param <T>    the type of the entity.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void publish(Class<T> type, DataChange<T> change) {
+        List<Consumer<?>> typeListeners = listeners.get(type);
+        if (typeListeners == null) {
+            return;
+        }
+        for (Consumer<?> listener : typeListeners) {
+            try {
+                ((Consumer<DataChange<T>>) listener).accept(change);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A listener's registration on the bus.
+     */
+    @FunctionalInterface
+    public interface Subscription {
+        /**
+         * Stops sending changes to the listener.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.c195_project.dao;
+
+import com.example.c195_project.helper.JDBC;
+import com.example.c195_project.helper.ReferenceDataCache;
+import com.example.c195_project.model.Appointment;
+import com.example.c195_project.model.Customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks up the appointments and customers other workstations have written, so the tables stay current without
+ * full reloads. Every poll reads only the rows whose Last_Update is at or after the previous poll, plus the
+ * tombstones of rows deleted since then (see {@code sql/sync.sql}), and publishes them on the
+ * {@link DataChangeBus} like local writes. Rows the listeners do not show yet arrive as updates and are added.
+ * <p>
+ * The watermark is taken from the database server's clock, never the workstation's, and each poll looks back
+ * five seconds further than the previous one reached, so a transaction that committed just after a poll started
+ * is still seen. Rows read twice are merged twice, which is harmless. This workstation's own writes also come
+ * back once; they were already applied, so merging them again changes nothing.
+ * </p>
+ */
+public class DeltaSync {
+
+    private static final String SERVER_TIME_QUERY = "SELECT UTC_TIMESTAMP()";
+    private static final String PURGE_TOMBSTONES_QUERY = "DELETE FROM deleted_rows WHERE Deleted_At < UTC_TIMESTAMP() - INTERVAL 1 DAY";
+    private static final Duration OVERLAP = Duration.ofSeconds(5);
+
+    // Poll interval, overridable with -Dc195.sync.intervalMillis; 0 or less turns polling off
+    private static final long intervalMillis = Long.getLong("c195.sync.intervalMillis", 15 * 1000L);
+
+    private static final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private static final CustomerDAO customerDAO = new CustomerDAO();
+
+    private static ScheduledExecutorService scheduler;
+    private static volatile LocalDateTime watermark;
+
+    /**
+     * Starts polling in the background. Changes made before this call are not published; the caller is
+     * expected to load its tables after starting the sync.
+     */
+    public static synchronized void start() {
+        if (scheduler != null || intervalMillis <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delta-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(DeltaSync::begin);
+        scheduler.scheduleWithFixedDelay(DeltaSync::poll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops polling. A poll that is running is interrupted and its remaining changes are dropped.
+     */
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        watermark = null;
+    }
+
+    /**
+     * Sets the first watermark and purges tombstones nobody needs any more.
+     */
+    private static void begin() {
+        try (Connection connection = JDBC.getConnection()) {
+            watermark = getServerTime(connection).minus(OVERLAP);
+            try (PreparedStatement stmt = connection.prepareStatement(PURGE_TOMBSTONES_QUERY)) {
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads and publishes the changes since the watermark, then moves the watermark forward. If any read fails
+     * the watermark stays where it is, so the same changes are read again by the next poll.
+     */
+    private static void poll() {
+        if (watermark == null) {
+            begin();
+            return;
+        }
+
+        try {
+            LocalDateTime pollStart;
+            try (Connection connection = JDBC.getConnection()) {
+                pollStart = getServerTime(connection);
+            }
+
+            List<Appointment> appointments = appointmentDAO.getAppointmentsChangedSince(watermark);
+            List<Customer> customers = customerDAO.getCustomersChangedSince(watermark);
+            List<Integer> deletedAppointmentIds = appointmentDAO.getDeletedAppointmentIdsSince(watermark);
+            List<Integer> deletedCustomerIds = customerDAO.getDeletedCustomerIdsSince(watermark);
+
+            publish(appointments, customers, deletedAppointmentIds, deletedCustomerIds);
+            watermark = pollStart.minus(OVERLAP);
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Brings the caches up to date with one poll's changes and publishes them.
+     *
+     * @param appointments          the inserted or updated appointments.
+     * @param customers             the inserted or updated customers.
+     * @param deletedAppointmentIds the IDs of the deleted appointments.
+     * @param deletedCustomerIds    the IDs of the deleted customers.
+     */
+    private static void publish(List<Appointment> appointments, List<Customer> customers,
+                                List<Integer> deletedAppointmentIds, List<Integer> deletedCustomerIds) {
+        if (appointments.isEmpty() && customers.isEmpty() && deletedAppointmentIds.isEmpty() && deletedCustomerIds.isEmpty()) {
+            return;
+        }
+
+        AppointmentDAO.invalidateReports();
+        if (!customers.isEmpty() || !deletedCustomerIds.isEmpty()) {
+            ReferenceDataCache.invalidateCustomers();
+        }
+
+        AppointmentIntervalIndex intervalIndex = AppointmentIntervalIndex.getInstance();
+        for (Appointment appointment : appointments) {
+            intervalIndex.put(AppointmentIntervalIndex.Interval.of(appointment), appointment.getCustomerId());
+            DataChangeBus.publish(Appointment.class, DataChange.updated(appointment.getId(), appointment));
+        }
+        for (int id : deletedAppointmentIds) {
+            intervalIndex.remove(id);
+            DataChangeBus.publish(Appointment.class, DataChange.deleted(id));
+        }
+        for (Customer customer : customers) {
+            DataChangeBus.publish(Customer.class, DataChange.updated(customer.getId(), customer));
+        }
+        for (int id : deletedCustomerIds) {
+            intervalIndex.invalidate(id);
+            DataChangeBus.publish(Customer.class, DataChange.deleted(id));
+        }
+    }
+
+    /**
+     * @param connection a pooled connection.
+     * @return the database server's current UTC time.
+     * @throws SQLException if a database error occurs.
+     */
+    private static LocalDateTime getServerTime(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SERVER_TIME_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getObject(1, LocalDateTime.class);
+        }
+    }
+}
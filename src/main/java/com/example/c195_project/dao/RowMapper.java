@@ -0,0 +1,22 @@
+package com.example.c195_project.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the current row of a query into an object. Each mapper belongs to one projection, the explicit column
+ * list of the queries it reads, and reads the columns by their position in that list rather than looking each
+ * name up on every row.
+ *
+ * @param <T> the type of the objects.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * @param rs a result set positioned on a row of the mapper's projection.
+     * @return the object read from the row.
+     * @throws SQLException if a column cannot be read.
+     */
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,98 @@
+package com.example.c195_project.dao;
+
+import com.example.c195_project.helper.JDBC;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of work on one pooled connection. Statements prepared on {@link #getConnection()} run in a single
+ * database transaction that is made permanent by {@link #commit()}. Closing a transaction that has not been
+ * committed rolls it back, so a try-with-resources block never leaves half-applied writes behind:
+ * <pre>{@code
+ * try (Transaction tx = Transaction.begin()) {
+ *     ... statements on tx.getConnection() ...
+ *     tx.commit();
+ * }
+ * }</pre>
+ */
+public class Transaction implements AutoCloseable {
+
+    private final Connection connection;
+    private boolean committed;
+
+    /**
+     * @param connection the borrowed connection, with auto-commit already turned off.
+     */
+    private Transaction(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Borrows a connection from the pool and starts a transaction on it.
+     *
+     * @return the new transaction.
+     * @throws SQLException if no connection is available or auto-commit cannot be turned off.
+     */
+    public static Transaction begin() throws SQLException {
+        Connection connection = JDBC.getConnection();
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return new Transaction(connection);
+    }
+
+    /**
+     * @return the connection the transaction's statements must be prepared on.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Makes every write in the transaction permanent.
+     *
+     * @throws SQLException if the commit fails; the transaction is then rolled back when it is closed.
+     */
+    public void commit() throws SQLException {
+        connection.commit();
+        committed = true;
+    }
+
+    /**
+     * Discards every write in the transaction.
+     *
+     * @throws SQLException if the rollback fails.
+     */
+    public void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    /**
+     * @return true if {@link #commit()} has succeeded.
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Rolls the transaction back unless it was committed, restores auto-commit and returns the connection
+     * to the pool.
+     *
+     * @throws SQLException if the rollback fails.
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (!committed) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } finally {
+            connection.close();
+        }
+    }
+}
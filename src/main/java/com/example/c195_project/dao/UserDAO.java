@@ -1,10 +1,10 @@
 package com.example.c195_project.dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import com.example.c195_project.helper.JDBC;
 import com.example.c195_project.model.User;
 
 /**
@@ -12,10 +12,6 @@ import com.example.c195_project.model.User;
  */
 public class UserDAO {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/your_database";
-    private static final String USER = "your_username";
-    private static final String PASSWORD = "your_password";
-
     private static final String SELECT_USER_BY_ID_QUERY = "SELECT * FROM users WHERE id = ?";
     private static final String INSERT_USER_QUERY = "INSERT INTO users (username, password, dateCreated, createdBy, lastUpdated, updatedBy) VALUES (?, ?, ?, ?, ?, ?)";
     private static final String UPDATE_USER_QUERY = "UPDATE users SET username = ?, password = ?, dateCreated = ?, createdBy = ?, lastUpdated = ?, updatedBy = ? WHERE id = ?";
@@ -28,8 +24,8 @@ public class UserDAO {
      * @return the User object if found, otherwise null.
      */
     public User getUserById(int id) {
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD)) {
-            PreparedStatement stmt = conn.prepareStatement(SELECT_USER_BY_ID_QUERY);
+        try (Connection conn = JDBC.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_USER_BY_ID_QUERY)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
@@ -50,7 +46,7 @@ public class UserDAO {
      * @return true if the insertion was successful, otherwise false.
      */
     public boolean createUser(User user) {
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Connection conn = JDBC.getConnection();
              PreparedStatement stmt = prepareStatementWithUserData(conn.prepareStatement(INSERT_USER_QUERY), user)) {
 
             return stmt.executeUpdate() > 0;
@@ -68,7 +64,7 @@ public class UserDAO {
      * @return true if the update was successful, otherwise false.
      */
     public boolean updateUser(User user) {
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Connection conn = JDBC.getConnection();
              PreparedStatement stmt = prepareStatementWithUserData(conn.prepareStatement(UPDATE_USER_QUERY), user)) {
 
             stmt.setInt(7, user.getId());
@@ -88,7 +84,7 @@ public class UserDAO {
      * @return true if the deletion was successful, otherwise false.
      */
     public boolean deleteUser(int id) {
-        try (Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Connection conn = JDBC.getConnection();
              PreparedStatement stmt = conn.prepareStatement(DELETE_USER_QUERY)) {
 
             stmt.setInt(1, id);
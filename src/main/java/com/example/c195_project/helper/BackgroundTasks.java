@@ -0,0 +1,66 @@
+package com.example.c195_project.helper;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor that runs database work off the JavaFX application thread. It has one worker per pooled connection,
+ * since a query cannot run without a connection anyway, and its threads are daemons so they never keep the
+ * application alive. Controllers normally go through a {@link TaskGroup} rather than using this class directly.
+ */
+public class BackgroundTasks {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(JDBC.getMaxPoolSize(), runnable -> {
+        Thread thread = new Thread(runnable, "db-worker-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @return the executor database work runs on.
+     */
+    public static Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Runs a JavaFX task on the background executor. Its handlers are called on the JavaFX application thread.
+     *
+     * @param task the task to run.
+     */
+    public static void execute(Task<?> task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Runs a piece of work on the background executor.
+     *
+     * @param work the work to run.
+     * @param <T>  the type of the result.
+     * @return a future completed with the result, or completed exceptionally with whatever the work threw.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Stops accepting work and interrupts the tasks that are still running.
+     */
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.c195_project.helper;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of physical connections to the client_schedule database, exposed as a {@link DataSource}.
+ * Connections handed out by {@link #getConnection()} are returned to the pool when they are closed, so callers
+ * should always borrow them in a try-with-resources block. Each physical connection keeps its own
+ * {@link StatementCache}, so {@code prepareStatement} calls for the same SQL text reuse one prepared statement
+ * instead of having the driver parse the SQL again.
+ */
+public class ConnectionPool implements DataSource {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String jdbcUrl;
+    private final String userName;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+    private int loginTimeout;
+
+    /**
+     * Creates a pool and pre-opens {@code minIdle} connections.
+     *
+     * @param jdbcUrl             the JDBC URL of the database.
+     * @param userName            the database user name.
+     * @param password            the database password.
+     * @param minIdle             the number of idle connections kept open even when unused.
+     * @param maxSize             the maximum number of connections that can be borrowed at the same time.
+     * @param idleTimeoutMillis   how long a connection may sit idle before it is evicted (above {@code minIdle}).
+     * @param borrowTimeoutMillis how long {@link #getConnection()} waits for a free connection before failing.
+     * @param statementCacheSize  the number of prepared statements cached per physical connection.
+     */
+    public ConnectionPool(String jdbcUrl, String userName, String password, int minIdle, int maxSize,
+                          long idleTimeoutMillis, long borrowTimeoutMillis, int statementCacheSize) {
+        if (maxSize < 1 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minIdle <= maxSize and maxSize >= 1");
+        }
+        this.jdbcUrl = jdbcUrl;
+        this.userName = userName;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        for (int i = 0; i < minIdle; i++) {
+            try {
+                PhysicalConnection connection = openPhysicalConnection();
+                connection.lastUsed = System.currentTimeMillis();
+                idle.push(connection);
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+                break;
+            }
+        }
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(idleTimeoutMillis / 2, 1000);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no valid idle connection is available.
+     * Idle connections are validated before they are handed out.
+     *
+     * @return a pooled connection; closing it returns it to the pool.
+     * @throws SQLException if the pool is closed, no connection becomes free within the borrow timeout,
+     *                      or a new connection cannot be opened.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PhysicalConnection physical = takeValidIdleConnection();
+            if (physical == null) {
+                physical = openPhysicalConnection();
+            }
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Pooled connections always use the credentials the pool was created with.
+     *
+     * @throws SQLFeatureNotSupportedException always.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The connection pool does not support per-call credentials");
+    }
+
+    /**
+     * Closes every idle connection and stops the eviction thread. Connections that are still borrowed are
+     * closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        synchronized (idle) {
+            for (PhysicalConnection connection : idle) {
+                connection.close();
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * @return the number of connections currently checked out of the pool.
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * @return the number of open connections waiting in the pool.
+     */
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    /**
+     * Pops idle connections until a valid one is found. Connections that fail validation are discarded.
+     *
+     * @return a valid physical connection, or null if the pool has none idle.
+     */
+    private PhysicalConnection takeValidIdleConnection() {
+        while (true) {
+            PhysicalConnection candidate;
+            synchronized (idle) {
+                candidate = idle.poll();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            try {
+                if (candidate.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return candidate;
+                }
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+            candidate.close();
+        }
+    }
+
+    /**
+     * Returns a physical connection to the pool, or closes it if the pool has been shut down or the
+     * connection is no longer usable.
+     *
+     * @param physical the physical connection being returned.
+     */
+    private void release(PhysicalConnection physical) {
+        try {
+            physical.statements.reclaim();
+            boolean reusable = !closed && !physical.connection.isClosed();
+            if (reusable && !physical.connection.getAutoCommit()) {
+                physical.connection.rollback();
+                physical.connection.setAutoCommit(true);
+            }
+            if (reusable) {
+                physical.lastUsed = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.push(physical);
+                }
+            } else {
+                physical.close();
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            physical.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections that have not been used within the idle timeout, keeping at least
+     * {@code minIdle} connections open.
+     */
+    private void evictIdleConnections() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        synchronized (idle) {
+            // The deque is ordered most-recently-used first, so stale connections are at the tail
+            Iterator<PhysicalConnection> oldestFirst = idle.descendingIterator();
+            while (idle.size() > minIdle && oldestFirst.hasNext()) {
+                PhysicalConnection connection = oldestFirst.next();
+                if (connection.lastUsed < cutoff) {
+                    oldestFirst.remove();
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a new physical connection to the database together with its statement cache.
+     *
+     * @return the new connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private PhysicalConnection openPhysicalConnection() throws SQLException {
+        return new PhysicalConnection(DriverManager.getConnection(jdbcUrl, userName, password), statementCacheSize);
+    }
+
+    /**
+     * Wraps a physical connection in a proxy whose {@code close()} returns it to the pool instead of
+     * closing the socket.
+     *
+     * @param physical the connection to wrap.
+     * @return the pooled connection handed to callers.
+     */
+    private Connection wrap(PhysicalConnection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("The connection pool does not use java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool, its statement cache and the time it was last returned.
+     */
+    private static class PhysicalConnection {
+        private final Connection connection;
+        private final StatementCache statements;
+        private long lastUsed;
+
+        private PhysicalConnection(Connection connection, int statementCacheSize) {
+            this.connection = connection;
+            this.statements = new StatementCache(connection, statementCacheSize);
+        }
+
+        /**
+         * Closes the cached statements and the connection, ignoring any error.
+         */
+        private void close() {
+            statements.close();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection, except {@code close()} which hands it back to the pool and
+     * {@code prepareStatement(String)} / {@code prepareStatement(String, int)} which go through the statement cache.
+     * Every statement handed out returns this proxy, not the physical connection, from {@code getConnection()}.
+     * Any call made after the pooled connection has been closed fails.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private boolean returned;
+
+        private PooledConnectionHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical.connection;
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return physical.statements.prepare((String) args[0], (Connection) proxy);
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 2 && args[1] instanceof Integer) {
+                return physical.statements.prepare((String) args[0], (Integer) args[1], (Connection) proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(physical.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                // Statements the cache does not keep must not expose the physical connection either
+                return StatementCache.wrapUncached((Statement) result, method.getReturnType(), (Connection) proxy);
+            }
+            return result;
+        }
+    }
+}
@@ -1,46 +1,24 @@
 package com.example.c195_project.helper;
 
+import com.example.c195_project.dao.AppointmentDAO;
+import com.example.c195_project.dao.AppointmentIntervalIndex;
+import com.example.c195_project.dao.CustomerDAO;
+import com.example.c195_project.model.Customer;
 import javafx.scene.control.Alert;
 import java.time.ZoneId;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.time.format.DateTimeFormatter;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 
-import com.example.c195_project.helper.JDBC;
 
 /**
  * Utility class that provides various helper methods for database operations and data conversion.
  */
 public class Helper {
     private static final String INFO_DIALOG_TITLE = "Information Dialog";
-    private static final String SELECT_CONTACT_ID_QUERY = "SELECT Contact_ID FROM contacts WHERE Contact_Name = ?";
-    private static final String SELECT_CONTACT_NAME_QUERY = "SELECT Contact_Name FROM contacts WHERE Contact_ID = ?";
-
-    private static final String SELECT_USERNAME_QUERY = "SELECT User_Name FROM users WHERE User_ID = ?";
-    private static final String SELECT_COUNTRY_DATA_QUERY = "SELECT countries.Country FROM countries " +
-            "JOIN first_level_divisions ON countries.Country_ID = first_level_divisions.Country_ID " +
-            "WHERE first_level_divisions.Division_ID = ?";
-    private static final String SELECT_DIVISIONS_BY_COUNTRY_QUERY = "SELECT Division FROM first_level_divisions WHERE Country_ID = ?";
-    private static final String SELECT_MAX_CUSTOMER_ID_QUERY = "SELECT MAX(Customer_ID) AS MaxID FROM customers";
-    private static final String INSERT_CUSTOMER_QUERY = "INSERT INTO customers (Customer_ID, Customer_Name, Address, Postal_Code, Phone, Country_ID, Division_ID) VALUES (?, ?, ?, ?, ?, ?, ?)";
-    private static final String SELECT_ALL_COUNTRIES_QUERY = "SELECT Country FROM countries";
-    private static final String SELECT_ALL_DIVISIONS_QUERY = "SELECT Division FROM first_level_divisions";
-    private static final String UPDATE_CUSTOMER_QUERY = "UPDATE customers SET Customer_Name = ?, Address = ?, Postal_Code = ?, Phone = ?, Division_ID = ? WHERE Customer_ID = ?";
-    private static final String SELECT_ALL_CONTACT_NAMES_QUERY = "SELECT Contact_Name FROM contacts";
-    private static final String SELECT_ALL_CUSTOMER_IDS_QUERY = "SELECT Customer_ID FROM customers";
-    private static final String SELECT_ALL_USER_IDS_QUERY = "SELECT User_ID FROM users";
-    private static final String SELECT_COUNTRY_ID_BY_NAME_QUERY = "SELECT Country_ID FROM countries WHERE Country = ?";
-    private static final String SELECT_DIVISION_ID_BY_COUNTRY_AND_DIVISION_NAMES_QUERY =
-            "SELECT first_level_divisions.Division_ID FROM first_level_divisions " +
-                    "JOIN countries ON first_level_divisions.Country_ID = countries.Country_ID " +
-                    "WHERE countries.Country = ? AND first_level_divisions.Division = ?";
-    private static final String SELECT_DIVISION_BY_ID_QUERY = "SELECT Division FROM first_level_divisions WHERE Division_ID = ?";
-
-
+    private static final String COLLISION_TIME_PATTERN = "yyyy-MM-dd HH:mm";
 
     /**
      * Displays an informational alert with a specified message.
@@ -55,6 +33,25 @@ public class Helper {
         alert.showAndWait();
     }
 
+    /**
+     * Builds an alert message that lists the appointments colliding with a proposed time slot.
+     *
+     * @param message    the message to show before the list.
+     * @param collisions the colliding appointments.
+     * @return the message followed by one line per colliding appointment.
+     */
+    public static String describeCollisions(String message, List<AppointmentIntervalIndex.Interval> collisions) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(COLLISION_TIME_PATTERN);
+        StringBuilder text = new StringBuilder(message);
+        for (AppointmentIntervalIndex.Interval collision : collisions) {
+            text.append(System.lineSeparator())
+                    .append("Appointment # ").append(collision.getAppointmentId())
+                    .append(": ").append(formatter.format(collision.getStart()))
+                    .append(" - ").append(formatter.format(collision.getEnd()));
+        }
+        return text.toString();
+    }
+
     /**
      * Retrieves the ID of a contact based on its name.
      *
@@ -62,7 +59,7 @@ public class Helper {
      * @return the ID of the contact, or -1 if not found.
      */
     public static int getContactId(String contactName) {
-        return getIdByName(SELECT_CONTACT_ID_QUERY, contactName);
+        return ReferenceDataCache.getContactId(contactName);
     }
 
     /**
@@ -72,42 +69,27 @@ public class Helper {
      * @return the name of the contact, or null if not found.
      */
     public static String getContactName(int contactId) {
-        return getNameById(SELECT_CONTACT_NAME_QUERY, contactId);
+        return ReferenceDataCache.getContactName(contactId);
     }
 
     public static int getUserId(String userName) {
-        return getIdByName(SELECT_USERNAME_QUERY, userName);
+        return ReferenceDataCache.getUserId(userName);
     }
 
     public static String getUsername(int userId) {
-        return getNameById(SELECT_USERNAME_QUERY, userId);
+        return ReferenceDataCache.getUsername(userId);
     }
 
     public static int getDivisionId(String countryName, String divisionName) {
-        int divisionId = -1;
-
-        try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(SELECT_DIVISION_ID_BY_COUNTRY_AND_DIVISION_NAMES_QUERY);
-            statement.setString(1, countryName);
-            statement.setString(2, divisionName);
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                divisionId = resultSet.getInt("Division_ID");
-            }
-        } catch (SQLException e) {
-            System.out.println("Error: " + e.getMessage());
-        }
-
-        return divisionId;
+        return ReferenceDataCache.getDivisionId(countryName, divisionName);
     }
 
     public static String getCountryData(int divisionId) {
-        return getNameById(SELECT_COUNTRY_DATA_QUERY, divisionId);
+        return ReferenceDataCache.getCountryNameForDivision(divisionId);
     }
 
     public static String getDivisionData(int divisionId) {
-        return getNameById(SELECT_DIVISION_BY_ID_QUERY, divisionId);
+        return ReferenceDataCache.getDivisionName(divisionId);
     }
 
 
@@ -154,7 +136,7 @@ public class Helper {
      * @return the ID of the specified country; returns -1 if the country is not found or an error occurs.
      */
     public static int getCountryId(String countryName) {
-        return getIdByName(SELECT_COUNTRY_ID_BY_NAME_QUERY, countryName);
+        return ReferenceDataCache.getCountryId(countryName);
     }
 
     /**
@@ -164,7 +146,7 @@ public class Helper {
      * @return the name of the specified country; returns null if the country is not found or an error occurs.
      */
     public static String getCountryName(int countryId) {
-        return getNameById(SELECT_COUNTRY_DATA_QUERY, countryId);
+        return ReferenceDataCache.getCountryName(countryId);
     }
 
     /**
@@ -175,63 +157,7 @@ public class Helper {
      *         returns an empty list if no divisions are found or an error occurs.
      */
     public static List<String> getDivisions(String countryName) {
-        List<String> divisions = new ArrayList<>();
-
-        try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(SELECT_DIVISIONS_BY_COUNTRY_QUERY);
-            statement.setInt(1, getCountryId(countryName));
-            ResultSet resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-                divisions.add(resultSet.getString("Division"));
-            }
-        } catch (SQLException e) {
-            System.out.println("Error: " + e.getMessage());
-        }
-
-        return divisions;
-    }
-
-
-    /**
-     * Generates the next customer ID by retrieving the maximum current customer ID and adding one.
-     *
-     * @return the next customer ID.
-     */
-    public static int getNextCustomerId() {
-        return getMaxId(SELECT_MAX_CUSTOMER_ID_QUERY) + 1;
-    }
-
-    /**
-     * Inserts a new customer into the database.
-     *
-     * @param id the ID of the customer.
-     * @param name the name of the customer.
-     * @param address the address of the customer.
-     * @param postalCode the postal code of the customer.
-     * @param phone the phone number of the customer.
-     * @param countryId the country ID of the customer's address.
-     * @param divisionId the division ID of the customer's address.
-     * @return true if the insertion is successful, false otherwise.
-     */
-    public static boolean insertCustomer(int id, String name, String address, String postalCode, String phone, int countryId, int divisionId) {
-        try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(INSERT_CUSTOMER_QUERY);
-            statement.setInt(1, id);
-            statement.setString(2, name);
-            statement.setString(3, address);
-            statement.setString(4, postalCode);
-            statement.setString(5, phone);
-            statement.setInt(6, countryId);
-            statement.setInt(7, divisionId);
-
-            int rowsAffected = statement.executeUpdate();
-
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.out.println("Error: " + e.getMessage());
-            return false;
-        }
+        return ReferenceDataCache.getDivisions(countryName);
     }
 
     /**
@@ -240,7 +166,7 @@ public class Helper {
      * @return a list containing the names of all countries.
      */
     public static List<String> getAllCountryNames() {
-        return getAllNames(SELECT_ALL_COUNTRIES_QUERY);
+        return ReferenceDataCache.getAllCountryNames();
     }
 
     /**
@@ -249,11 +175,12 @@ public class Helper {
      * @return a list containing the names of all divisions.
      */
     public static List<String> getAllDivisionNames() {
-        return getAllNames(SELECT_ALL_DIVISIONS_QUERY);
+        return ReferenceDataCache.getAllDivisionNames();
     }
 
     /**
-     * Updates a customer's details in the database.
+     * Updates a customer's details in the database through {@link CustomerDAO}, so the change is published like
+     * any other customer write.
      *
      * @param id the ID of the customer to update.
      * @param name the new name of the customer.
@@ -265,17 +192,8 @@ public class Helper {
      */
     public static boolean updateCustomer(int id, String name, String address, String postalCode, String phone, int divisionId) {
         try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(UPDATE_CUSTOMER_QUERY);
-            statement.setString(1, name);
-            statement.setString(2, address);
-            statement.setString(3, postalCode);
-            statement.setString(4, phone);
-            statement.setInt(5, divisionId);
-            statement.setInt(6, id);
-
-            int rowsAffected = statement.executeUpdate();
-
-            return rowsAffected > 0;
+            Customer customer = new Customer(id, name, address, postalCode, phone, null, null, null, null, divisionId);
+            return new CustomerDAO().updateCustomer(customer);
         } catch (SQLException e) {
             System.out.println("Error: " + e.getMessage());
             return false;
@@ -288,7 +206,7 @@ public class Helper {
      * @return a list containing the names of all contacts.
      */
     public static List<String> getAllContactNames() {
-        return getAllNames(SELECT_ALL_CONTACT_NAMES_QUERY);
+        return ReferenceDataCache.getAllContactNames();
     }
 
     /**
@@ -297,7 +215,7 @@ public class Helper {
      * @return a list containing the IDs of all customers.
      */
     public static List<Integer> getAllCustomerIds() {
-        return getAllIds(SELECT_ALL_CUSTOMER_IDS_QUERY);
+        return ReferenceDataCache.getAllCustomerIds();
     }
 
     /**
@@ -306,7 +224,7 @@ public class Helper {
      * @return a list containing the IDs of all users.
      */
     public static List<Integer> getAllUserIds() {
-        return getAllIds(SELECT_ALL_USER_IDS_QUERY);
+        return ReferenceDataCache.getAllUserIds();
     }
 
     /**
@@ -318,113 +236,4 @@ public class Helper {
         return ZoneId.systemDefault();
     }
 
-    /**
-     * Retrieves the ID associated with a given name from the database.
-     *
-     * @param query the SQL query to execute.
-     * @param name the name to use in the query.
-     * @return the ID associated with the name, or -1 if not found.
-     */
-    private static int getIdByName(String query, String name) {
-        int id = -1;
-        try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(query);
-            statement.setString(1, name);
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                id = resultSet.getInt(1);
-            }
-            System.out.println("Name: " + name + ", ID: " + id);
-        } catch (SQLException e) {
-            System.out.println("Error: " + e.getMessage());
-        }
-        return id;
-    }
-
-    /**
-     * Retrieves the name associated with a given ID from the database.
-     *
-     * @param query the SQL query to execute.
-     * @param id the ID to use in the query.
-     * @return the name associated with the ID, or null if not found.
-     */
-    private static String getNameById(String query, int id) {
-        String name = null;
-        try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(query);
-            statement.setInt(1, id);
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                name = resultSet.getString(1);
-            }
-        } catch (SQLException e) {
-            System.out.println("Error: " + e.getMessage());
-        }
-        return name;
-    }
-
-    /**
-     * Retrieves the maximum ID from the table specified in the query.
-     *
-     * @param query the SQL query string to get the maximum ID.
-     * @return the maximum ID found; returns 0 if no ID is found or an error occurs.
-     */
-    private static int getMaxId(String query) {
-        int maxId = 0;
-        try {
-            PreparedStatement statement = JDBC.getConnection().prepareStatement(query);
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                maxId = resultSet.getInt(1);
-            }
-        } catch (SQLException e) {
-            System.out.println("Error: " + e.getMessage());
-        }
-        return maxId;
-    }
-
-    /**
-     * Retrieves a list of names from the table specified in the query.
-     *
-     * @param query the SQL query string to get all names.
-     * @return a list of names; returns an empty list if no names are found or an error occurs.
-     */
-    private static List<String> getAllNames(String query) {
-        List<String> names = new ArrayList<>();
-        try {
-            PreparedStatement stmt = JDBC.getConnection().prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                names.add(rs.getString(1));
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-        return names;
-    }
-
-    /**
-     * Retrieves a list of IDs from the table specified in the query.
-     *
-     * @param query the SQL query string to get all IDs.
-     * @return a list of IDs; returns an empty list if no IDs are found or an error occurs.
-     */
-    private static List<Integer> getAllIds(String query) {
-        List<Integer> ids = new ArrayList<>();
-        try {
-            PreparedStatement stmt = JDBC.getConnection().prepareStatement(query);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                ids.add(rs.getInt(1));
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-        return ids;
-    }
 }
\ No newline at end of file
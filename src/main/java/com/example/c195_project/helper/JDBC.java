@@ -1,11 +1,15 @@
 package com.example.c195_project.helper;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 /**
- * Utility class responsible for managing the database connection to the client_schedule database.
- * Provides methods to open, retrieve, and close the connection.
+ * Utility class responsible for managing database connections to the client_schedule database.
+ * Connections are served from a bounded {@link ConnectionPool}; callers borrow one with {@link #getConnection()}
+ * and return it by closing it, preferably in a try-with-resources block.
  */
 public class JDBC {
 
@@ -13,23 +17,33 @@ public class JDBC {
     private static final String vendor = ":mysql:";
     private static final String location = "//localhost/";
     private static final String databaseName = "client_schedule";
-    private static final String timeZoneSettings = "?useUnicode=true&useJDBCCompliantTimezoneShift=true&useLegacyDatetimeCode=false&serverTimezone=UTC";
+    private static final String timeZoneSettings = "?useUnicode=true&useJDBCCompliantTimezoneShift=true&useLegacyDatetimeCode=false&serverTimezone=UTC&rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String jdbcUrl = protocol + vendor + location + databaseName + timeZoneSettings; // LOCAL
     private static final String driver = "com.mysql.cj.jdbc.Driver"; // Driver reference
     private static final String userName = "sqlUser"; // Username
     private static String password = "Passw0rd!"; // Password
-    public static Connection connection;  // Connection Interface
+
+    // Pool sizing, overridable with -Dc195.pool.* system properties
+    private static final int minIdle = Integer.getInteger("c195.pool.minIdle", 2);
+    private static final int maxSize = Integer.getInteger("c195.pool.maxSize", 10);
+    private static final long idleTimeoutMillis = Long.getLong("c195.pool.idleTimeoutMillis", 5 * 60 * 1000L);
+    private static final long borrowTimeoutMillis = Long.getLong("c195.pool.borrowTimeoutMillis", 10 * 1000L);
+    private static final int statementCacheSize = Integer.getInteger("c195.pool.statementCacheSize", 50);
+    // Rows per round trip when streaming a whole table, overridable with -Dc195.stream.fetchSize
+    private static final int streamFetchSize = Integer.getInteger("c195.stream.fetchSize", 500);
+
+    private static ConnectionPool pool;  // Pooled DataSource
 
     /**
-     * Opens a connection to the client_schedule database.
-     * If the connection is successful, a confirmation message is printed to the console.
+     * Opens the connection pool to the client_schedule database.
+     * If the pool is created successfully, a confirmation message is printed to the console.
      * If an error occurs, an error message is printed to the console.
      */
     public static void openConnection()
     {
         try {
             Class.forName(driver); // Locate Driver
-            connection = DriverManager.getConnection(jdbcUrl, userName, password); // Reference Connection object
+            pool = new ConnectionPool(jdbcUrl, userName, password, minIdle, maxSize, idleTimeoutMillis, borrowTimeoutMillis, statementCacheSize);
             System.out.println("Connection successful!");
         }
         catch(Exception e)
@@ -39,23 +53,69 @@ public class JDBC {
     }
 
     /**
-     * Retrieves the active database connection object.
+     * Borrows a connection from the pool. The connection must be closed to return it to the pool.
      *
-     * @return the active {@link Connection} object, or null if no active connection exists.
+     * @return a pooled {@link Connection}.
+     * @throws SQLException if the pool has not been opened or no connection is available.
+     */
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Prepares a query whose rows are read through a server-side cursor, a fetch size at a time, instead of being
+     * buffered by the driver all at once, so reading a whole table takes the same memory however large it is.
+     * Statements without a fetch size, including every other query, are still read in full ({@code useCursorFetch}
+     * only applies once a fetch size is set).
+     * <p>
+     * The statement bypasses the statement cache, which would keep the fetch size for the next caller; it must be
+     * closed by the caller, and the connection must stay borrowed until every row has been read.
+     * </p>
+     *
+     * @param connection a borrowed connection.
+     * @param sql        the query.
+     * @return the prepared statement.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public static PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(streamFetchSize);
+        return stmt;
+    }
+
+    /**
+     * Retrieves the pooled data source backing {@link #getConnection()}.
+     *
+     * @return the pooled {@link DataSource}.
+     * @throws SQLException if the pool has not been opened.
+     */
+    public static DataSource getDataSource() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Connection pool has not been opened. Call openConnection() first.");
+        }
+        return pool;
+    }
+
+    /**
+     * @return the maximum number of connections the pool hands out at the same time.
      */
-    public static Connection getConnection() {
-        return connection;
+    public static int getMaxPoolSize() {
+        return maxSize;
     }
 
     /**
-     * Closes the active connection to the client_schedule database.
-     * If the connection is closed successfully, a confirmation message is printed to the console.
+     * Closes the connection pool to the client_schedule database.
+     * If the pool is closed successfully, a confirmation message, the statement cache counters and the string dictionary report are printed to the console.
      * If an error occurs during the close operation, an error message is printed to the console.
      */
     public static void closeConnection() {
         try {
-            connection.close();
+            pool.close();
             System.out.println("Connection closed!");
+            System.out.println("Statement cache: hits=" + StatementCache.getHitCount()
+                    + ", misses=" + StatementCache.getMissCount()
+                    + ", evictions=" + StatementCache.getEvictionCount());
+            System.out.println(StringDictionary.getMemoryReport());
         }
         catch(Exception e)
         {
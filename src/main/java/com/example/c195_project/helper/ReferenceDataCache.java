@@ -0,0 +1,362 @@
+package com.example.c195_project.helper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory cache of the reference data the forms look up over and over: contacts, users, countries,
+ * first-level divisions and customer IDs. Each table is read once in bulk into id/name maps (in both directions)
+ * and a country to divisions multimap, then served from memory until it is invalidated or the refresh interval
+ * elapses. Customer IDs change far more often than the rest, so they are cached and invalidated separately.
+ */
+public class ReferenceDataCache {
+
+    private static final String ALL_CONTACTS_QUERY = "SELECT Contact_ID, Contact_Name FROM contacts";
+    private static final String ALL_USERS_QUERY = "SELECT User_ID, User_Name FROM users";
+    private static final String ALL_COUNTRIES_QUERY = "SELECT Country_ID, Country FROM countries";
+    private static final String ALL_DIVISIONS_QUERY = "SELECT Division_ID, Division, Country_ID FROM first_level_divisions";
+    private static final String ALL_CUSTOMER_IDS_QUERY = "SELECT Customer_ID FROM customers";
+
+    private static final Object lock = new Object();
+    private static volatile long refreshIntervalMillis = Long.getLong("c195.referenceData.refreshIntervalMillis", 10 * 60 * 1000L);
+    private static volatile Snapshot snapshot;
+    private static volatile CustomerIds customerIds;
+
+    /**
+     * Sets how long loaded data is served before it is read again from the database.
+     *
+     * @param millis the refresh interval in milliseconds; 0 or less reloads on every access.
+     */
+    public static void setRefreshIntervalMillis(long millis) {
+        refreshIntervalMillis = millis;
+    }
+
+    /**
+     * Drops all cached data so the next lookup reloads it from the database.
+     */
+    public static void invalidate() {
+        snapshot = null;
+        customerIds = null;
+    }
+
+    /**
+     * Drops the cached customer IDs. Call after a customer is added or deleted.
+     */
+    public static void invalidateCustomers() {
+        customerIds = null;
+    }
+
+    /**
+     * @param contactName the name of the contact.
+     * @return the ID of the contact, or -1 if not found.
+     */
+    public static int getContactId(String contactName) {
+        return current().contactIds.getOrDefault(contactName, -1);
+    }
+
+    /**
+     * @param contactId the ID of the contact.
+     * @return the name of the contact, or null if not found.
+     */
+    public static String getContactName(int contactId) {
+        return current().contactNames.get(contactId);
+    }
+
+    /**
+     * @return the names of all contacts, in database order.
+     */
+    public static List<String> getAllContactNames() {
+        return new ArrayList<>(current().contactNames.values());
+    }
+
+    /**
+     * @param userName the name of the user.
+     * @return the ID of the user, or -1 if not found.
+     */
+    public static int getUserId(String userName) {
+        return current().userIds.getOrDefault(userName, -1);
+    }
+
+    /**
+     * @param userId the ID of the user.
+     * @return the name of the user, or null if not found.
+     */
+    public static String getUsername(int userId) {
+        return current().userNames.get(userId);
+    }
+
+    /**
+     * @return the IDs of all users, in database order.
+     */
+    public static List<Integer> getAllUserIds() {
+        return new ArrayList<>(current().userNames.keySet());
+    }
+
+    /**
+     * @param countryName the name of the country.
+     * @return the ID of the country, or -1 if not found.
+     */
+    public static int getCountryId(String countryName) {
+        return current().countryIds.getOrDefault(countryName, -1);
+    }
+
+    /**
+     * @param countryId the ID of the country.
+     * @return the name of the country, or null if not found.
+     */
+    public static String getCountryName(int countryId) {
+        return current().countryNames.get(countryId);
+    }
+
+    /**
+     * @return the names of all countries, in database order.
+     */
+    public static List<String> getAllCountryNames() {
+        return new ArrayList<>(current().countryNames.values());
+    }
+
+    /**
+     * @param divisionId the ID of the division.
+     * @return the name of the division, or null if not found.
+     */
+    public static String getDivisionName(int divisionId) {
+        Division division = current().divisions.get(divisionId);
+        return division == null ? null : division.name;
+    }
+
+    /**
+     * @param divisionId the ID of the division.
+     * @return the name of the country the division belongs to, or null if not found.
+     */
+    public static String getCountryNameForDivision(int divisionId) {
+        Snapshot data = current();
+        Division division = data.divisions.get(divisionId);
+        return division == null ? null : data.countryNames.get(division.countryId);
+    }
+
+    /**
+     * @param countryName  the name of the country.
+     * @param divisionName the name of the division within that country.
+     * @return the ID of the division, or -1 if the country has no division with that name.
+     */
+    public static int getDivisionId(String countryName, String divisionName) {
+        Snapshot data = current();
+        Integer countryId = data.countryIds.get(countryName);
+        if (countryId == null) {
+            return -1;
+        }
+        return data.divisionIdsByCountry.getOrDefault(countryId, Collections.emptyMap()).getOrDefault(divisionName, -1);
+    }
+
+    /**
+     * @param countryName the name of the country.
+     * @return the names of the divisions in that country, or an empty list if the country is not found.
+     */
+    public static List<String> getDivisions(String countryName) {
+        Snapshot data = current();
+        Integer countryId = data.countryIds.get(countryName);
+        if (countryId == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(data.divisionIdsByCountry.getOrDefault(countryId, Collections.emptyMap()).keySet());
+    }
+
+    /**
+     * @return the names of all divisions, in database order.
+     */
+    public static List<String> getAllDivisionNames() {
+        List<String> names = new ArrayList<>();
+        for (Division division : current().divisions.values()) {
+            names.add(division.name);
+        }
+        return names;
+    }
+
+    /**
+     * @return the IDs of all customers, in database order.
+     */
+    public static List<Integer> getAllCustomerIds() {
+        CustomerIds ids = customerIds;
+        if (ids == null || ids.isExpired()) {
+            synchronized (lock) {
+                ids = customerIds;
+                if (ids == null || ids.isExpired()) {
+                    ids = loadCustomerIds(ids);
+                    customerIds = ids;
+                }
+            }
+        }
+        return new ArrayList<>(ids.ids);
+    }
+
+    /**
+     * Returns the loaded reference data, reloading it if it has been invalidated or has expired.
+     *
+     * @return the current snapshot.
+     */
+    private static Snapshot current() {
+        Snapshot data = snapshot;
+        if (data == null || data.isExpired()) {
+            synchronized (lock) {
+                data = snapshot;
+                if (data == null || data.isExpired()) {
+                    data = loadSnapshot(data);
+                    snapshot = data;
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Reads contacts, users, countries and divisions in bulk over one connection.
+     *
+     * @param stale the previous snapshot, served again if the reload fails.
+     * @return the freshly loaded snapshot, the stale one, or an empty snapshot if nothing could be loaded.
+     */
+    private static Snapshot loadSnapshot(Snapshot stale) {
+        Snapshot data = new Snapshot();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement contacts = connection.prepareStatement(ALL_CONTACTS_QUERY);
+             PreparedStatement users = connection.prepareStatement(ALL_USERS_QUERY);
+             PreparedStatement countries = connection.prepareStatement(ALL_COUNTRIES_QUERY);
+             PreparedStatement divisions = connection.prepareStatement(ALL_DIVISIONS_QUERY)) {
+            loadIdNamePairs(contacts, data.contactIds, data.contactNames);
+            loadIdNamePairs(users, data.userIds, data.userNames);
+            loadIdNamePairs(countries, data.countryIds, data.countryNames);
+
+            ResultSet rs = divisions.executeQuery();
+            while (rs.next()) {
+                Division division = new Division(rs.getString(2), rs.getInt(3));
+                int divisionId = rs.getInt(1);
+                data.divisions.put(divisionId, division);
+                data.divisionIdsByCountry.computeIfAbsent(division.countryId, id -> new LinkedHashMap<>())
+                        .put(division.name, divisionId);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return stale != null ? stale.retry() : new Snapshot().retry();
+        }
+
+        return data;
+    }
+
+    /**
+     * Reads all customer IDs.
+     *
+     * @param stale the previous IDs, served again if the reload fails.
+     * @return the freshly loaded IDs, the stale ones, or an empty list if nothing could be loaded.
+     */
+    private static CustomerIds loadCustomerIds(CustomerIds stale) {
+        List<Integer> ids = new ArrayList<>();
+
+        try (Connection connection = JDBC.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(ALL_CUSTOMER_IDS_QUERY)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            System.out.println("Error: " + e.getMessage());
+            return new CustomerIds(stale != null ? stale.ids : Collections.emptyList(), true);
+        }
+
+        return new CustomerIds(Collections.unmodifiableList(ids), false);
+    }
+
+    /**
+     * Fills an id to name map and its reverse from a two-column (id, name) query.
+     *
+     * @param stmt    the query to run.
+     * @param idsByName the name to id map to fill.
+     * @param namesById the id to name map to fill.
+     * @throws SQLException if the query fails.
+     */
+    private static void loadIdNamePairs(PreparedStatement stmt, Map<String, Integer> idsByName, Map<Integer, String> namesById) throws SQLException {
+        ResultSet rs = stmt.executeQuery();
+        while (rs.next()) {
+            int id = rs.getInt(1);
+            String name = rs.getString(2);
+            idsByName.put(name, id);
+            namesById.put(id, name);
+        }
+    }
+
+    /**
+     * Whether data loaded at the given time should be read again.
+     *
+     * @param loadedAt the time the data was loaded, in epoch milliseconds.
+     * @return true if the refresh interval has elapsed.
+     */
+    private static boolean isExpired(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt >= refreshIntervalMillis;
+    }
+
+    /**
+     * An immutable view of the reference tables as of one bulk load.
+     */
+    private static class Snapshot {
+        private final Map<String, Integer> contactIds = new HashMap<>();
+        private final Map<Integer, String> contactNames = new LinkedHashMap<>();
+        private final Map<String, Integer> userIds = new HashMap<>();
+        private final Map<Integer, String> userNames = new LinkedHashMap<>();
+        private final Map<String, Integer> countryIds = new HashMap<>();
+        private final Map<Integer, String> countryNames = new LinkedHashMap<>();
+        private final Map<Integer, Division> divisions = new LinkedHashMap<>();
+        private final Map<Integer, Map<String, Integer>> divisionIdsByCountry = new HashMap<>();
+        private long loadedAt = System.currentTimeMillis();
+
+        private boolean isExpired() {
+            return ReferenceDataCache.isExpired(loadedAt);
+        }
+
+        /**
+         * Marks the snapshot as expired so the next access tries to load it again.
+         *
+         * @return this snapshot.
+         */
+        private Snapshot retry() {
+            loadedAt = Long.MIN_VALUE / 2;
+            return this;
+        }
+    }
+
+    /**
+     * The customer IDs as of one load.
+     */
+    private static class CustomerIds {
+        private final List<Integer> ids;
+        private final long loadedAt;
+
+        private CustomerIds(List<Integer> ids, boolean failed) {
+            this.ids = ids;
+            this.loadedAt = failed ? Long.MIN_VALUE / 2 : System.currentTimeMillis();
+        }
+
+        private boolean isExpired() {
+            return ReferenceDataCache.isExpired(loadedAt);
+        }
+    }
+
+    /**
+     * A first-level division and the country it belongs to.
+     */
+    private static class Division {
+        private final String name;
+        private final int countryId;
+
+        private Division(String name, int countryId) {
+            this.name = name;
+            this.countryId = countryId;
+        }
+    }
+}
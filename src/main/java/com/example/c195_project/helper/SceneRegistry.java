@@ -0,0 +1,157 @@
+package com.example.c195_project.helper;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Keeps every screen of the application alive once it has been loaded. Each FXML file is parsed once, its scene
+ * gets the stylesheet once, and later navigations switch the stage back to the same scene and controller instead
+ * of rebuilding them. Controllers that have to reset their state when they are shown again implement
+ * {@link Reusable}.
+ * <p>
+ * Every method must be called on the JavaFX application thread.
+ * </p>
+ */
+public class SceneRegistry {
+
+    public static final String LOGIN_FXML = "/com/example/c195_project/login.fxml";
+    public static final String MAIN_WINDOW_FXML = "/com/example/c195_project/MainWindow.fxml";
+    public static final String ADD_APPOINTMENT_FXML = "/com/example/c195_project/addAppointment.fxml";
+    public static final String UPDATE_APPOINTMENT_FXML = "/com/example/c195_project/updateAppointment.fxml";
+    public static final String ADD_CUSTOMER_FXML = "/com/example/c195_project/addCustomer.fxml";
+    public static final String UPDATE_CUSTOMER_FXML = "/com/example/c195_project/updateCustomer.fxml";
+
+    /**
+     * Scene width or height that sizes the scene to the preferred size of its FXML root, as {@code new Scene(root)}.
+     */
+    public static final double PREFERRED_SIZE = -1;
+
+    private static final String STYLESHEET_CSS = "/com/example/c195_project/stylesheet.css";
+    private static final String LOGIN_BUNDLE = "com.example.c195_project.Login";
+
+    private static final Map<String, View> views = new HashMap<>();
+
+    /**
+     * Shows a screen on a stage, loading it the first time it is needed.
+     * {@link Reusable#onShow()} is called before the scene is shown.
+     *
+     * @param stage the stage to show the screen on.
+     * @param fxml  the path of the screen's FXML file.
+     * @param title the window title, or null to keep the current one.
+     * @param <C>   the type of the screen's controller.
+     * @return the screen's controller.
+     * @throws IOException if the FXML file cannot be loaded.
+     */
+    public static <C> C show(Stage stage, String fxml, String title) throws IOException {
+        return show(stage, fxml, title, PREFERRED_SIZE, PREFERRED_SIZE);
+    }
+
+    /**
+     * Shows a screen on a stage like {@link #show(Stage, String, String)}, giving its scene a size if the screen is
+     * loaded now. A screen that is already loaded keeps the size its scene was created with.
+     *
+     * @param stage  the stage to show the screen on.
+     * @param fxml   the path of the screen's FXML file.
+     * @param title  the window title, or null to keep the current one.
+     * @param width  the scene's width, or {@link #PREFERRED_SIZE} for the FXML's preferred width.
+     * @param height the scene's height, or {@link #PREFERRED_SIZE} for the FXML's preferred height.
+     * @param <C>    the type of the screen's controller.
+     * @return the screen's controller.
+     * @throws IOException if the FXML file cannot be loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> C show(Stage stage, String fxml, String title, double width, double height) throws IOException {
+        View view = load(fxml, width, height);
+        if (view.controller instanceof Reusable) {
+            ((Reusable) view.controller).onShow();
+        }
+
+        stage.setScene(view.scene);
+        if (title != null) {
+            stage.setTitle(title);
+        }
+        stage.show();
+        return (C) view.controller;
+    }
+
+    /**
+     * Loads screens ahead of time so that showing them later is immediate. Screens that are already loaded are
+     * left alone, and a screen that fails to load is reported and skipped.
+     *
+     * @param fxmlPaths the paths of the screens' FXML files.
+     */
+    public static void preload(String... fxmlPaths) {
+        for (String fxml : fxmlPaths) {
+            try {
+                load(fxml, PREFERRED_SIZE, PREFERRED_SIZE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Forgets every loaded screen, so each one is built from scratch the next time it is shown.
+     * Used when the user logs out, so nothing of one session is shown in the next.
+     */
+    public static void clear() {
+        views.clear();
+    }
+
+    /**
+     * Returns the loaded screen for an FXML file, loading it if needed.
+     *
+     * @param fxml   the path of the FXML file.
+     * @param width  the width of the scene if it is created now, or {@link #PREFERRED_SIZE}.
+     * @param height the height of the scene if it is created now, or {@link #PREFERRED_SIZE}.
+     * @return the loaded screen.
+     * @throws IOException if the FXML file cannot be loaded.
+     */
+    private static View load(String fxml, double width, double height) throws IOException {
+        View view = views.get(fxml);
+        if (view == null) {
+            ResourceBundle bundle = LOGIN_FXML.equals(fxml) ? ResourceBundle.getBundle(LOGIN_BUNDLE, Locale.getDefault()) : null;
+            FXMLLoader loader = new FXMLLoader(SceneRegistry.class.getResource(fxml), bundle);
+            Parent root = loader.load();
+
+            Scene scene = new Scene(root, width, height);
+            scene.getStylesheets().add(SceneRegistry.class.getResource(STYLESHEET_CSS).toExternalForm());
+
+            view = new View(scene, loader.getController());
+            views.put(fxml, view);
+        }
+        return view;
+    }
+
+    /**
+     * A controller that is kept alive between visits to its screen.
+     */
+    public interface Reusable {
+        /**
+         * Called every time the screen is about to be shown, including the first time, so the controller can
+         * clear what the previous visit left behind and refresh its data.
+         */
+        void onShow();
+    }
+
+    /**
+     * A loaded screen: its scene and its controller.
+     */
+    private static class View {
+        private final Scene scene;
+        private final Object controller;
+
+        private View(Scene scene, Object controller) {
+            this.scene = scene;
+            this.controller = controller;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.c195_project.helper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of prepared statements for a single physical connection, keyed by SQL text.
+ * Statements handed out by {@link #prepare(String, Connection)} look like ordinary statements to the caller, but
+ * closing them resets their parameters and settings and returns them to the cache, so the next caller with the same
+ * SQL text skips the driver parsing it and building a new statement. Connector/J prepares statements on the client unless
+ * server-side preparation is enabled (as {@code useCursorFetch} does); a cached statement then also keeps its
+ * server-side handle instead of preparing the SQL on the server again.
+ * The statements, and the result sets they return, give the pooled connection and the statement proxy back from
+ * {@code getConnection()} and {@code getStatement()}, so a caller cannot close the physical objects behind the
+ * cache's back. Hit, miss and eviction counts are aggregated across every cache in the application.
+ */
+public class StatementCache {
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    private final Connection physical;
+    private final Map<String, CachedStatement> statements;
+    // Uncached copies prepared while the cached statement was checked out, closed at the latest by reclaim()
+    private final List<CachedStatement> duplicates = new ArrayList<>();
+
+    /**
+     * Creates an empty cache for the given connection.
+     *
+     * @param physical the physical connection statements are prepared on.
+     * @param maxSize  the maximum number of statements kept open for this connection.
+     */
+    public StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                evictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached statement for the SQL text, preparing it on a miss.
+     *
+     * @param sql   the SQL text.
+     * @param owner the pooled connection the statement is prepared through.
+     * @return a statement whose {@code close()} returns it to the cache.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        return prepare(sql, owner, () -> physical.prepareStatement(sql));
+    }
+
+    /**
+     * Returns a cached statement for the SQL text prepared with the given generated-keys flag.
+     *
+     * @param sql               the SQL text.
+     * @param autoGeneratedKeys {@link java.sql.Statement#RETURN_GENERATED_KEYS} or {@link java.sql.Statement#NO_GENERATED_KEYS}.
+     * @param owner             the pooled connection the statement is prepared through.
+     * @return a statement whose {@code close()} returns it to the cache.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys, Connection owner) throws SQLException {
+        return prepare(autoGeneratedKeys + ":" + sql, owner, () -> physical.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    /**
+     * Wraps a statement the cache does not keep, such as a streaming query, so that it and its result sets give
+     * the pooled connection back instead of the physical one. Closing it closes the physical statement.
+     *
+     * @param statement the physical statement.
+     * @param type      the statement interface to expose.
+     * @param owner     the pooled connection the statement was created through.
+     * @return the statement proxy.
+     */
+    public static Object wrapUncached(Statement statement, Class<?> type, Connection owner) {
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConnection":
+                            return owner;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return result instanceof ResultSet ? wrapResult((ResultSet) result, (Statement) proxy) : result;
+                });
+    }
+
+    /**
+     * Returns every statement handed out since the connection was borrowed to the cache. Called when the owning
+     * connection is returned to the pool so that statements the caller forgot to close do not stay checked out.
+     */
+    public synchronized void reclaim() {
+        for (CachedStatement statement : statements.values()) {
+            if (statement.inUse) {
+                statement.handBack();
+            }
+        }
+        for (CachedStatement duplicate : duplicates) {
+            if (duplicate.inUse) {
+                duplicate.handBack();
+            }
+        }
+        duplicates.clear();
+    }
+
+    /**
+     * Closes every cached statement.
+     */
+    public synchronized void close() {
+        for (CachedStatement statement : statements.values()) {
+            statement.evict();
+        }
+        statements.clear();
+        for (CachedStatement duplicate : duplicates) {
+            duplicate.evict();
+        }
+        duplicates.clear();
+    }
+
+    /**
+     * @return the number of times a statement was served from a cache.
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of times a statement had to be prepared.
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of statements closed to make room for others.
+     */
+    public static long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Looks a statement up by key, preparing it on a miss. If the cached statement is still checked out (the same
+     * SQL is used twice on one connection at once), an uncached statement is prepared instead.
+     *
+     * @param key     the cache key.
+     * @param owner   the pooled connection the statement is prepared through.
+     * @param factory prepares the physical statement.
+     * @return the statement proxy handed to the caller.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    private PreparedStatement prepare(String key, Connection owner, StatementFactory factory) throws SQLException {
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            return cached.checkOut(owner);
+        }
+
+        misses.increment();
+        CachedStatement created = new CachedStatement(factory.prepare());
+        if (cached == null) {
+            statements.put(key, created);
+        } else {
+            // Do not replace the statement that is checked out; this one is closed for real when done
+            created.evicted = true;
+            duplicates.add(created);
+        }
+        return created.checkOut(owner);
+    }
+
+    /**
+     * Wraps a result set so that {@code getStatement()} returns the statement proxy it was read through.
+     *
+     * @param resultSet the physical result set.
+     * @param owner     the statement proxy.
+     * @return the result set proxy.
+     */
+    private static ResultSet wrapResult(ResultSet resultSet, Statement owner) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getStatement":
+                            return owner;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(resultSet, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Prepares a physical statement on a cache miss.
+     */
+    @FunctionalInterface
+    private interface StatementFactory {
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    /**
+     * A physical statement in the cache, together with the proxy currently handed out for it.
+     */
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private final List<ResultSet> openResults = new ArrayList<>();
+        private boolean inUse;
+        private boolean evicted;
+        private PreparedStatement checkedOut;
+
+        private CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Marks the statement as in use and creates a fresh proxy for the caller.
+         *
+         * @param owner the pooled connection the caller borrowed.
+         * @return the statement proxy.
+         */
+        private PreparedStatement checkOut(Connection owner) {
+            inUse = true;
+            checkedOut = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandler(this, owner));
+            return checkedOut;
+        }
+
+        /**
+         * Closes the result sets opened by the caller, clears parameters and batched rows, restores the default fetch
+         * size, row limit and query timeout, and makes the statement available again. Statements that were evicted
+         * while checked out are closed instead.
+         */
+        private void handBack() {
+            for (ResultSet resultSet : openResults) {
+                try {
+                    resultSet.close();
+                } catch (SQLException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+            openResults.clear();
+            inUse = false;
+            checkedOut = null;
+
+            if (evicted) {
+                closePhysical();
+                return;
+            }
+            try {
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.setFetchSize(0);
+                physical.setMaxRows(0);
+                physical.setQueryTimeout(0);
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+                evicted = true;
+                closePhysical();
+            }
+        }
+
+        /**
+         * Removes the statement from service, closing it now or, if it is checked out, when it is handed back.
+         */
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closePhysical();
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Forwards calls to the physical statement. {@code close()} hands the statement back to the cache,
+     * {@code getConnection()} returns the pooled connection, and result sets are remembered so they can be closed
+     * at the same time.
+     */
+    private static class StatementHandler implements InvocationHandler {
+        private final CachedStatement statement;
+        private final Connection owner;
+
+        private StatementHandler(CachedStatement statement, Connection owner) {
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean active = statement.checkedOut == proxy;
+            switch (method.getName()) {
+                case "close":
+                    if (active) {
+                        statement.handBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return !active || statement.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + statement.physical;
+                default:
+                    break;
+            }
+
+            if (!active) {
+                throw new SQLException("Statement has already been closed");
+            }
+            if (method.getName().equals("getConnection")) {
+                return owner;
+            }
+            Object result;
+            try {
+                result = method.invoke(statement.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                statement.openResults.add((ResultSet) result);
+                return wrapResult((ResultSet) result, (Statement) proxy);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.c195_project.helper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Application-wide dictionary of the text values that repeat across many rows, such as appointment types,
+ * locations, the user names in the audit columns, and division and country names. The row mappers pass those
+ * columns through {@link #intern(String)}, so every row with the same value shares one {@code String} instead of
+ * keeping its own copy for as long as the row is loaded.
+ * <p>
+ * The dictionary holds at most {@code c195.strings.maxEntries} distinct values (10,000 by default); once it is
+ * full, new values are returned as they are. Lookup and size counts, with an estimate of the heap the loaded
+ * strings would take with and without the dictionary, are aggregated for {@link #getMemoryReport()}.
+ * </p>
+ */
+public class StringDictionary {
+
+    private static final int maxEntries = Integer.getInteger("c195.strings.maxEntries", 10_000);
+
+    private static final Map<String, String> values = new ConcurrentHashMap<>();
+    private static final LongAdder lookups = new LongAdder();
+    private static final LongAdder shared = new LongAdder();
+    private static final LongAdder bytesLookedUp = new LongAdder();
+    private static final LongAdder bytesStored = new LongAdder();
+
+    /**
+     * Returns the dictionary's copy of a value, adding the value if it is new and there is room.
+     *
+     * @param value a value read from the database, or null.
+     * @return an equal string shared with every other caller, or the value itself.
+     */
+    public static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.increment();
+        bytesLookedUp.add(estimateSize(value));
+
+        String existing = values.get(value);
+        if (existing != null) {
+            shared.increment();
+            return existing;
+        }
+        if (values.size() >= maxEntries) {
+            bytesStored.add(estimateSize(value));
+            return value;
+        }
+        existing = values.putIfAbsent(value, value);
+        if (existing != null) {
+            shared.increment();
+            return existing;
+        }
+        bytesStored.add(estimateSize(value));
+        return value;
+    }
+
+    /**
+     * @return the number of values passed to {@link #intern(String)}.
+     */
+    public static long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return the number of values replaced by a copy the dictionary already held.
+     */
+    public static long getSharedCount() {
+        return shared.sum();
+    }
+
+    /**
+     * @return the number of distinct values held.
+     */
+    public static int getSize() {
+        return values.size();
+    }
+
+    /**
+     * Summarizes what the dictionary saved. The sizes are estimates of the strings' own heap, assuming a
+     * compressed-pointer JVM and compact (Latin-1) strings, and count every value ever looked up, whether or not
+     * its row is still loaded.
+     *
+     * @return a one-line report of the string heap without and with the dictionary.
+     */
+    public static String getMemoryReport() {
+        long before = bytesLookedUp.sum();
+        long after = bytesStored.sum();
+        return "String dictionary: lookups=" + getLookupCount()
+                + ", shared=" + getSharedCount()
+                + ", distinct=" + getSize()
+                + ", estimated string heap without=" + before + " bytes"
+                + ", with=" + after + " bytes";
+    }
+
+    /**
+     * @param value a string.
+     * @return the estimated heap taken by the string and its character array.
+     */
+    private static long estimateSize(String value) {
+        // 24-byte String header and fields, 16-byte array header, contents padded to 8 bytes
+        return 24 + 16 + ((value.length() + 7) & ~7L);
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.c195_project.helper;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Feeds a {@link TableView} one page at a time. The first page is loaded when the pager is reset and every further
+ * page when the user scrolls near the bottom of the table, each one fetched with keyset pagination after the last
+ * row of the previous page. The total number of rows is counted by a separate query.
+ * <p>
+ * Rows are kept in the order of the pages, which the database sorts; the table's own sorting is not used, so
+ * the caller installs a sort policy that resets the pager with a query in the requested order. Single rows can be
+ * inserted, replaced or removed in place as they are written; a row that sorts after the last loaded page is left
+ * for the page that will contain it. Changes that
+ * arrive while a page is loading are applied once it has arrived, since the page may have been read before them.
+ * </p>
+ * <p>
+ * Apart from the queries themselves, every method must be called on the JavaFX application thread.
+ * </p>
+ *
+ * @param <T> the type of the rows.
+ */
+public class TablePager<T> {
+
+    // Rows per page, overridable with -Dc195.table.pageSize
+    private static final int PAGE_SIZE = Integer.getInteger("c195.table.pageSize", 200);
+    // The next page is requested once the user has scrolled this far down the loaded rows
+    private static final double PREFETCH_THRESHOLD = 0.9;
+
+    private final TableView<T> table;
+    private final TaskGroup tasks;
+    private final ToIntFunction<T> idOf;
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+    private final ReadOnlyIntegerWrapper totalCount = new ReadOnlyIntegerWrapper(0);
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    private PageQuery<T> pageQuery;
+    private Comparator<T> order;
+    private Callable<Integer> countQuery;
+    private T cursor;
+    private boolean exhausted = true;
+    private Task<?> pageLoad;
+    private Task<?> countLoad;
+    private boolean countStale;
+    private ScrollBar scrollBar;
+
+    /**
+     * @param table the table to feed.
+     * @param tasks the background tasks of the table's screen.
+     * @param idOf  reads the database ID of a row.
+     */
+    public TablePager(TableView<T> table, TaskGroup tasks, ToIntFunction<T> idOf) {
+        this.table = table;
+        this.tasks = tasks;
+        this.idOf = idOf;
+        table.setItems(rows);
+
+        table.skinProperty().addListener((observable, oldSkin, newSkin) -> Platform.runLater(this::attachScrollBar));
+        if (table.getSkin() != null) {
+            attachScrollBar();
+        }
+    }
+
+    /**
+     * Drops the loaded rows and starts over from the first page of a new query, which may filter or sort
+     * differently from the previous one. A page or count still being loaded for the previous query is cancelled.
+     *
+     * @param pageQuery  loads the page after a row.
+     * @param countQuery counts every row the page query can return.
+     * @param order      the order of the pages, which must match the page query's ORDER BY.
+     */
+    public void reset(PageQuery<T> pageQuery, Callable<Integer> countQuery, Comparator<T> order) {
+        cancel(pageLoad);
+        cancel(countLoad);
+        pageLoad = null;
+        countLoad = null;
+        pendingChanges.clear();
+
+        this.pageQuery = pageQuery;
+        this.countQuery = countQuery;
+        this.order = order;
+        cursor = null;
+        exhausted = false;
+        rows.clear();
+
+        loadNextPage();
+        refreshCount();
+    }
+
+    /**
+     * Inserts a row or replaces the loaded row with the same ID, keeping the page order. A row that sorts after
+     * the last loaded page is removed instead, since it will be part of a later page.
+     *
+     * @param row the row as it is now stored.
+     */
+    public void upsert(T row) {
+        if (pageQuery == null || deferred(() -> upsert(row))) {
+            return;
+        }
+
+        int index = indexOf(idOf.applyAsInt(row));
+        if (index >= 0) {
+            rows.remove(index);
+        }
+        if (isLoadedRange(row)) {
+            // The row was removed above, so the search always returns its insertion point
+            int position = Collections.binarySearch(rows, row, order);
+            rows.add(position < 0 ? -position - 1 : position, row);
+        }
+        refreshCount();
+    }
+
+    /**
+     * Removes the row with an ID, if it is loaded.
+     *
+     * @param id the row's ID.
+     */
+    public void remove(int id) {
+        if (pageQuery == null || deferred(() -> remove(id))) {
+            return;
+        }
+
+        int index = indexOf(id);
+        if (index >= 0) {
+            rows.remove(index);
+        }
+        refreshCount();
+    }
+
+    /**
+     * Removes every loaded row that matches a condition.
+     *
+     * @param condition selects the rows to remove.
+     */
+    public void removeIf(Predicate<T> condition) {
+        if (pageQuery == null || deferred(() -> removeIf(condition))) {
+            return;
+        }
+
+        rows.removeIf(condition);
+        refreshCount();
+    }
+
+    /**
+     * @return the number of rows the query returns in total, loaded or not.
+     */
+    public ReadOnlyIntegerProperty totalCountProperty() {
+        return totalCount.getReadOnlyProperty();
+    }
+
+    /**
+     * Loads the page after the last loaded row, unless one is already loading or every row has been loaded.
+     */
+    private void loadNextPage() {
+        if (exhausted || pageLoad != null) {
+            return;
+        }
+
+        PageQuery<T> query = pageQuery;
+        T after = cursor;
+        pageLoad = tasks.submit(() -> query.load(after, PAGE_SIZE), page -> {
+            pageLoad = null;
+            rows.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1);
+            }
+            exhausted = page.size() < PAGE_SIZE;
+
+            List<Runnable> changes = new ArrayList<>(pendingChanges);
+            pendingChanges.clear();
+            changes.forEach(Runnable::run);
+
+            Platform.runLater(this::fillTable);
+        }, error -> {
+            pageLoad = null;
+            List<Runnable> changes = new ArrayList<>(pendingChanges);
+            pendingChanges.clear();
+            changes.forEach(Runnable::run);
+
+            error.printStackTrace();
+            Helper.showAlert("Error: " + error.getMessage());
+        });
+    }
+
+    /**
+     * Keeps loading pages while the rows do not fill the table, since there is nothing to scroll yet. A table
+     * that has never been shown has no scroll bar; it is filled once it is shown.
+     */
+    private void fillTable() {
+        if (scrollBar != null && !scrollBar.isVisible()) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Counts the rows again in the background. Requests that arrive while a count is running are merged into one
+     * more count once it finishes.
+     */
+    private void refreshCount() {
+        if (countQuery == null) {
+            return;
+        }
+        if (countLoad != null) {
+            countStale = true;
+            return;
+        }
+
+        countStale = false;
+        countLoad = tasks.submit(countQuery, count -> {
+            countLoad = null;
+            totalCount.set(count);
+            if (countStale) {
+                refreshCount();
+            }
+        }, error -> {
+            countLoad = null;
+            error.printStackTrace();
+        });
+    }
+
+    /**
+     * Holds back a change while a page is loading, so it is applied on top of that page.
+     *
+     * @param change the change.
+     * @return true if the change was held back.
+     */
+    private boolean deferred(Runnable change) {
+        if (pageLoad == null) {
+            return false;
+        }
+        pendingChanges.add(change);
+        return true;
+    }
+
+    /**
+     * @param row a row.
+     * @return true if the row sorts within the pages loaded so far.
+     */
+    private boolean isLoadedRange(T row) {
+        return exhausted || (cursor != null && order.compare(row, cursor) <= 0);
+    }
+
+    /**
+     * @param id a row's ID.
+     * @return the position of the loaded row with the ID, or -1 if it is not loaded.
+     */
+    private int indexOf(int id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (idOf.applyAsInt(rows.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the table's vertical scroll bar once its skin exists, and loads the next page whenever the user
+     * scrolls near the bottom or the rows no longer fill the table.
+     */
+    private void attachScrollBar() {
+        if (scrollBar != null) {
+            return;
+        }
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar = bar;
+                bar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() * PREFETCH_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+                // The table may have grown taller than its rows, for example when the window is maximized
+                bar.visibleProperty().addListener((observable, wasVisible, visible) -> fillTable());
+                Platform.runLater(this::fillTable);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cancels a load if there is one.
+     *
+     * @param load the load, or null.
+     */
+    private static void cancel(Task<?> load) {
+        if (load != null) {
+            load.cancel(true);
+        }
+    }
+
+    /**
+     * Loads one page of rows from the database.
+     *
+     * @param <T> the type of the rows.
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        /**
+         * @param after the last row of the previous page, or null for the first page.
+         * @param limit the maximum number of rows to return.
+         * @return the page, in the pager's order.
+         * @throws SQLException if a database error occurs.
+         */
+        List<T> load(T after, int limit) throws SQLException;
+    }
+}
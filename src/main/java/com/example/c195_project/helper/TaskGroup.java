@@ -0,0 +1,156 @@
+package com.example.c195_project.helper;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * The background tasks started by one screen. Work is run on {@link BackgroundTasks}, or passed in as an already
+ * running {@link CompletableFuture}, and its result is handed to a callback on the JavaFX application thread.
+ * {@link #busyProperty()} is true while any task is running, so it can drive a progress indicator, and
+ * {@link #cancelAll()} drops every pending result when the user leaves the screen.
+ * <p>
+ * Apart from the work itself, every method must be called on the JavaFX application thread.
+ * </p>
+ */
+public class TaskGroup {
+
+    private static final String ERROR_MESSAGE = "Error: ";
+
+    private final Set<Future<?>> running = new HashSet<>();
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+
+    /**
+     * Runs work in the background and shows an alert if it fails.
+     *
+     * @param work      the work to run off the JavaFX application thread.
+     * @param onSuccess receives the result on the JavaFX application thread.
+     * @param <T>       the type of the result.
+     * @return the running task, which can be cancelled to discard its result.
+     */
+    public <T> Task<T> submit(Callable<T> work, Consumer<T> onSuccess) {
+        return submit(work, onSuccess, TaskGroup::showError);
+    }
+
+    /**
+     * Runs work in the background.
+     *
+     * @param work      the work to run off the JavaFX application thread.
+     * @param onSuccess receives the result on the JavaFX application thread.
+     * @param onFailure receives the exception on the JavaFX application thread if the work throws.
+     * @param <T>       the type of the result.
+     * @return the running task, which can be cancelled to discard its result.
+     */
+    public <T> Task<T> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            finished(task);
+            onSuccess.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            finished(task);
+            onFailure.accept(task.getException());
+        });
+        task.setOnCancelled(e -> finished(task));
+
+        running.add(task);
+        busy.set(true);
+        BackgroundTasks.execute(task);
+        return task;
+    }
+
+    /**
+     * Hands the result of already running work to a callback and shows an alert if it fails.
+     *
+     * @param future    the running work, typically composed from {@code ...Async} DAO calls.
+     * @param onSuccess receives the result on the JavaFX application thread.
+     * @param <T>       the type of the result.
+     * @return the future, which can be cancelled to discard its result.
+     */
+    public <T> CompletableFuture<T> submit(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        return submit(future, onSuccess, TaskGroup::showError);
+    }
+
+    /**
+     * Hands the result of already running work to a callback.
+     *
+     * @param future    the running work, typically composed from {@code ...Async} DAO calls.
+     * @param onSuccess receives the result on the JavaFX application thread.
+     * @param onFailure receives the exception on the JavaFX application thread if the work fails.
+     * @param <T>       the type of the result.
+     * @return the future, which can be cancelled to discard its result.
+     */
+    public <T> CompletableFuture<T> submit(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        running.add(future);
+        busy.set(true);
+        future.whenComplete((value, error) -> Platform.runLater(() -> {
+            if (!running.contains(future)) {
+                // The group was cancelled while the work was running
+                return;
+            }
+            finished(future);
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(value);
+            } else {
+                onFailure.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Cancels every running task. Their callbacks are never called.
+     */
+    public void cancelAll() {
+        for (Future<?> future : new ArrayList<>(running)) {
+            future.cancel(true);
+        }
+        running.clear();
+        busy.set(false);
+    }
+
+    /**
+     * @return true while at least one task of the group is running.
+     */
+    public ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    /**
+     * Forgets a task that has completed, failed or been cancelled.
+     *
+     * @param task the task.
+     */
+    private void finished(Future<?> task) {
+        running.remove(task);
+        busy.set(!running.isEmpty());
+    }
+
+    /**
+     * The default failure handler: logs the error and shows it to the user.
+     *
+     * @param error the error.
+     */
+    private static void showError(Throwable error) {
+        error.printStackTrace();
+        Helper.showAlert(ERROR_MESSAGE + error.getMessage());
+    }
+}
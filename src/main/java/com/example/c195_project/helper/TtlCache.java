@@ -0,0 +1,83 @@
+package com.example.c195_project.helper;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A small thread-safe cache of query results that expire after a fixed time to live. Values are loaded on first
+ * access and served from memory until they expire or the cache is invalidated. Failed loads are not cached, and a
+ * load that was running while the cache was invalidated is returned to its caller but not stored, so a write can
+ * never be hidden behind a result computed before it.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the cached values.
+ */
+public class TtlCache<K, V> {
+
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private volatile long generation;
+
+    /**
+     * @param ttlMillis how long a loaded value is served, in milliseconds; 0 or less disables caching.
+     */
+    public TtlCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the cached value for a key, loading it if it is missing or has expired.
+     *
+     * @param key    the key.
+     * @param loader loads the value when it is not cached.
+     * @return the cached or freshly loaded value.
+     * @throws SQLException if the value has to be loaded and the load fails.
+     */
+    public V get(K key, Loader<K, V> loader) throws SQLException {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAt < ttlMillis) {
+            return entry.value;
+        }
+
+        long loadGeneration = generation;
+        V value = loader.load(key);
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(key, new Entry<>(value));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops every cached value, including any being loaded right now.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Loads the value of a key from the database.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    /**
+     * A cached value and the time it was loaded.
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -1,29 +1,70 @@
 package com.example.c195_project.model;
 
-import com.example.c195_project.helper.Helper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectPropertyBase;
+
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 /**
  * Represents an appointment in the scheduling system.
+ * <p>
+ * Appointments are immutable, so the DAO, the collision checks, the change bus and the tables can share one
+ * instance without copying it; a changed appointment is a new instance, such as the one returned by
+ * {@link #withId(int)}. The four timestamps are held as epoch seconds rather than as {@link LocalDateTime}
+ * objects: the start and end are converted once, the first time they are read, and the audit timestamps, which
+ * are rarely read, every time. The epoch seconds encode the local wall-clock time the DAO reads (the stored UTC
+ * value shifted into the JVM's zone) at the UTC offset, so they order like the times but are not the stored
+ * instants; this differs from {@link Customer}, whose audit timestamps are the stored values.
+ * </p>
+ * <p>
+ * The {@code ...Property()} methods adapt the values shown in tables to JavaFX; each adapter is created the first
+ * time its cell is shown and then reused, instead of wrapping the value again on every cell update. The adapters
+ * are read-only properties, so they also work with {@code PropertyValueFactory}. They must only be called on the
+ * JavaFX application thread.
+ * </p>
  */
-public class Appointment {
-    private int id;
-    private String title;
-    private String description;
-    private String location;
-    private String type;
-    private LocalDateTime start;
-    private LocalDateTime end;
-    private LocalDateTime createDate;
-    private String createdBy;
-    private LocalDateTime lastUpdate;
-    private String lastUpdatedBy;
-    private int customerId;
-    private int userId;
-    private int contactId;
-
-    /**
-     * Constructor to create an appointment instance with all attributes.
+public final class Appointment {
+
+    // Stands in for a timestamp the query did not select
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    // Positions of the property adapters in the properties array
+    private static final int ID_PROPERTY = 0;
+    private static final int TITLE_PROPERTY = 1;
+    private static final int DESCRIPTION_PROPERTY = 2;
+    private static final int LOCATION_PROPERTY = 3;
+    private static final int TYPE_PROPERTY = 4;
+    private static final int START_PROPERTY = 5;
+    private static final int END_PROPERTY = 6;
+    private static final int CUSTOMER_ID_PROPERTY = 7;
+    private static final int USER_ID_PROPERTY = 8;
+    private static final int CONTACT_ID_PROPERTY = 9;
+    private static final int PROPERTY_COUNT = 10;
+
+    private final int id;
+    private final String title;
+    private final String description;
+    private final String location;
+    private final String type;
+    private final long start;
+    private final long end;
+    private final long createDate;
+    private final String createdBy;
+    private final long lastUpdate;
+    private final String lastUpdatedBy;
+    private final int customerId;
+    private final int userId;
+    private final int contactId;
+
+    // Derived on first use; racing threads may each derive an equal value, which is harmless
+    private LocalDateTime startDateTime;
+    private LocalDateTime endDateTime;
+    private ReadOnlyObjectProperty<?>[] properties;
+
+    /**
+     * Constructor to create an appointment instance with all attributes. The timestamps are kept to the second,
+     * as the database stores them.
      *
      * @param id The unique identifier for the appointment.
      * @param title The title of the appointment.
@@ -32,9 +73,9 @@ public class Appointment {
      * @param type The type or category of the appointment.
      * @param start The start date and time of the appointment.
      * @param end The end date and time of the appointment.
-     * @param createDate The date and time the appointment was created.
+     * @param createDate The date and time the appointment was created, or null if it was not read.
      * @param createdBy The user who created the appointment.
-     * @param lastUpdate The date and time the appointment was last updated.
+     * @param lastUpdate The date and time the appointment was last updated, or null if it was not read.
      * @param lastUpdatedBy The user who last updated the appointment.
      * @param customerId The unique identifier of the customer associated with the appointment.
      * @param userId The unique identifier of the user associated with the appointment.
@@ -46,11 +87,11 @@ public class Appointment {
         this.description = description;
         this.location = location;
         this.type = type;
-        this.start = start;
-        this.end = end;
-        this.createDate = createDate;
+        this.start = toEpochSecond(start);
+        this.end = toEpochSecond(end);
+        this.createDate = toEpochSecond(createDate);
         this.createdBy = createdBy;
-        this.lastUpdate = lastUpdate;
+        this.lastUpdate = toEpochSecond(lastUpdate);
         this.lastUpdatedBy = lastUpdatedBy;
         this.customerId = customerId;
         this.userId = userId;
@@ -58,12 +99,13 @@ public class Appointment {
     }
 
     /**
-     * Copy constructor to create a new Appointment object as a copy of another.
+     * Copies an appointment with a different ID, such as the one the database generated for it.
      *
-     * @param other The Appointment object to copy.
+     * @param other The appointment to copy.
+     * @param id The ID of the copy.
      */
-    public Appointment(Appointment other) {
-        this.id = other.id;
+    private Appointment(Appointment other, int id) {
+        this.id = id;
         this.title = other.title;
         this.description = other.description;
         this.location = other.location;
@@ -79,6 +121,14 @@ public class Appointment {
         this.contactId = other.contactId;
     }
 
+    /**
+     * @param id The ID to give the appointment.
+     * @return An appointment equal to this one except for its ID.
+     */
+    public Appointment withId(int id) {
+        return new Appointment(this, id);
+    }
+
     // Getters
     /**
      * @return The unique identifier for the appointment.
@@ -119,21 +169,45 @@ public class Appointment {
      * @return The start date and time of the appointment.
      */
     public LocalDateTime getStart() {
-        return start;
+        LocalDateTime value = startDateTime;
+        if (value == null) {
+            value = toDateTime(start);
+            startDateTime = value;
+        }
+        return value;
     }
 
     /**
      * @return The end date and time of the appointment.
      */
     public LocalDateTime getEnd() {
+        LocalDateTime value = endDateTime;
+        if (value == null) {
+            value = toDateTime(end);
+            endDateTime = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return The start of the appointment, as its local wall-clock time encoded in epoch seconds at the UTC offset.
+     */
+    public long getStartEpochSecond() {
+        return start;
+    }
+
+    /**
+     * @return The end of the appointment, as its local wall-clock time encoded in epoch seconds at the UTC offset.
+     */
+    public long getEndEpochSecond() {
         return end;
     }
 
     /**
-     * @return The date and time the appointment was created.
+     * @return The date and time the appointment was created, or null if it was not read.
      */
     public LocalDateTime getCreateDate() {
-        return createDate;
+        return toDateTime(createDate);
     }
 
     /**
@@ -144,10 +218,10 @@ public class Appointment {
     }
 
     /**
-     * @return The date and time the appointment was last updated.
+     * @return The date and time the appointment was last updated, or null if it was not read.
      */
     public LocalDateTime getLastUpdate() {
-        return lastUpdate;
+        return toDateTime(lastUpdate);
     }
 
     /**
@@ -178,130 +252,145 @@ public class Appointment {
         return contactId;
     }
 
-    // Setters
+    // Property adapters for table cells
     /**
-     * Sets the unique identifier for the appointment.
-     *
-     * @param id The unique identifier to set.
+     * @return The ID, for a table cell.
      */
-    public void setId(int id) {
-        this.id = id;
+    public ReadOnlyObjectProperty<Integer> idProperty() {
+        return property(ID_PROPERTY, "id", id);
     }
 
     /**
-     * Sets the title of the appointment.
-     *
-     * @param title The title to set.
+     * @return The title, for a table cell.
      */
-    public void setTitle(String title) {
-        this.title = title;
+    public ReadOnlyObjectProperty<String> titleProperty() {
+        return property(TITLE_PROPERTY, "title", title);
     }
 
     /**
-     * Sets the detailed description of the appointment.
-     *
-     * @param description The description to set.
+     * @return The description, for a table cell.
      */
-    public void setDescription(String description) {
-        this.description = description;
+    public ReadOnlyObjectProperty<String> descriptionProperty() {
+        return property(DESCRIPTION_PROPERTY, "description", description);
     }
 
     /**
-     * Sets the location where the appointment is scheduled.
-     *
-     * @param location The location to set.
+     * @return The location, for a table cell.
      */
-    public void setLocation(String location) {
-        this.location = location;
+    public ReadOnlyObjectProperty<String> locationProperty() {
+        return property(LOCATION_PROPERTY, "location", location);
     }
 
     /**
-     * Sets the type or category of the appointment.
-     *
-     * @param type The type to set.
+     * @return The type, for a table cell.
      */
-    public void setType(String type) {
-        this.type = type;
+    public ReadOnlyObjectProperty<String> typeProperty() {
+        return property(TYPE_PROPERTY, "type", type);
     }
 
     /**
-     * Sets the start date and time of the appointment.
-     *
-     * @param start The start date and time to set.
+     * @return The start, for a table cell.
      */
-    public void setStart(LocalDateTime start) {
-        this.start = start;
+    public ReadOnlyObjectProperty<LocalDateTime> startProperty() {
+        return property(START_PROPERTY, "start", getStart());
     }
 
     /**
-     * Sets the end date and time of the appointment.
-     *
-     * @param end The end date and time to set.
+     * @return The end, for a table cell.
      */
-    public void setEnd(LocalDateTime end) {
-        this.end = end;
+    public ReadOnlyObjectProperty<LocalDateTime> endProperty() {
+        return property(END_PROPERTY, "end", getEnd());
     }
 
     /**
-     * Sets the date and time the appointment was created.
-     *
-     * @param createDate The creation date and time to set.
+     * @return The customer ID, for a table cell.
      */
-    public void setCreateDate(LocalDateTime createDate) {
-        this.createDate = createDate;
+    public ReadOnlyObjectProperty<Integer> customerIdProperty() {
+        return property(CUSTOMER_ID_PROPERTY, "customerId", customerId);
     }
 
     /**
-     * Sets the user who created the appointment.
-     *
-     * @param createdBy The creator's name to set.
+     * @return The user ID, for a table cell.
      */
-    public void setCreatedBy(String createdBy) {
-        this.createdBy = createdBy;
+    public ReadOnlyObjectProperty<Integer> userIdProperty() {
+        return property(USER_ID_PROPERTY, "userId", userId);
     }
 
     /**
-     * Sets the date and time the appointment was last updated.
-     *
-     * @param lastUpdate The last update date and time to set.
+     * @return The contact ID, for a table cell.
      */
-    public void setLastUpdate(LocalDateTime lastUpdate) {
-        this.lastUpdate = lastUpdate;
+    public ReadOnlyObjectProperty<Integer> contactIdProperty() {
+        return property(CONTACT_ID_PROPERTY, "contactId", contactId);
     }
 
     /**
-     * Sets the user who last updated the appointment.
+     * Returns the cached adapter at a position, creating it (and the array of adapters, the first time any cell of
+     * this appointment is shown) if needed.
      *
-     * @param lastUpdatedBy The last updater's name to set.
+     * @param position the adapter's position.
+     * @param name     the property's name.
+     * @param value    the value the adapter holds.
+     * @param <V>      the type of the value.
+     * @return the adapter.
      */
-    public void setLastUpdatedBy(String lastUpdatedBy) {
-        this.lastUpdatedBy = lastUpdatedBy;
+    @SuppressWarnings("unchecked")
+    private <V> ReadOnlyObjectProperty<V> property(int position, String name, V value) {
+        if (properties == null) {
+            properties = new ReadOnlyObjectProperty<?>[PROPERTY_COUNT];
+        }
+        ReadOnlyObjectProperty<V> property = (ReadOnlyObjectProperty<V>) properties[position];
+        if (property == null) {
+            property = new Constant<>(this, name, value);
+            properties[position] = property;
+        }
+        return property;
     }
 
     /**
-     * Sets the unique identifier of the customer associated with the appointment.
-     *
-     * @param customerId The customer's unique identifier to set.
+     * @param dateTime a date and time, or null.
+     * @return its epoch second at the UTC offset, or {@link #NO_TIME} for null.
      */
-    public void setCustomerId(int customerId) {
-        this.customerId = customerId;
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? NO_TIME : dateTime.toEpochSecond(ZoneOffset.UTC);
     }
 
     /**
-     * Sets the unique identifier of the user associated with the appointment.
-     *
-     * @param userId The user's unique identifier to set.
+     * @param epochSecond an epoch second at the UTC offset, or {@link #NO_TIME}.
+     * @return the date and time, or null for {@link #NO_TIME}.
      */
-    public void setUserId(int userId) {
-        this.userId = userId;
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
     }
 
     /**
-     * Sets the unique identifier of the contact associated with the appointment.
+     * A read-only property whose value never changes, so it never notifies its listeners.
      *
-     * @param contactId The contact's unique identifier to set.
+     * @param <V> the type of the value.
      */
-    public void setContactId(int contactId) {
-        this.contactId = contactId;
+    private static final class Constant<V> extends ReadOnlyObjectPropertyBase<V> {
+        private final Appointment bean;
+        private final String name;
+        private final V value;
+
+        private Constant(Appointment bean, String name, V value) {
+            this.bean = bean;
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public V get() {
+            return value;
+        }
+
+        @Override
+        public Object getBean() {
+            return bean;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,28 @@
 package com.example.c195_project.model;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 /**
  * Represents a customer in the system.
+ * <p>
+ * The creation and last update timestamps are held as epoch seconds of their stored (UTC) value, so customers
+ * can be compared chronologically without parsing; a {@link LocalDateTime} is only built when one is read.
+ * </p>
  */
 public class Customer {
+
+    // Stands in for a timestamp that is not known, such as that of a customer not yet stored
+    private static final long NO_TIME = Long.MIN_VALUE;
+
     private int id;
     private String name;
     private String address;
     private String postalCode;
     private String phone;
-    private String createDate;
+    private long createDate;
     private String createdBy;
-    private String lastUpdate;
+    private long lastUpdate;
     private String lastUpdatedBy;
     private int divisionId;
     private String state;
@@ -25,21 +36,21 @@ public class Customer {
      * @param address       The address of the customer.
      * @param postalCode    The postal code of the customer.
      * @param phone         The phone number of the customer.
-     * @param createDate    The date the customer was created.
+     * @param createDate    The date and time the customer was created, or null if it is not known.
      * @param createdBy     The user who created the customer.
-     * @param lastUpdate    The date of the last update.
+     * @param lastUpdate    The date and time of the last update, or null if it is not known.
      * @param lastUpdatedBy The user who last updated the customer.
      * @param divisionId    The division ID associated with the customer.
      */
-    public Customer(int id, String name, String address, String postalCode, String phone, String createDate, String createdBy, String lastUpdate, String lastUpdatedBy, int divisionId) {
+    public Customer(int id, String name, String address, String postalCode, String phone, LocalDateTime createDate, String createdBy, LocalDateTime lastUpdate, String lastUpdatedBy, int divisionId) {
         this.id = id;
         this.name = name;
         this.address = address;
         this.postalCode = postalCode;
         this.phone = phone;
-        this.createDate = createDate;
+        this.createDate = toEpochSecond(createDate);
         this.createdBy = createdBy;
-        this.lastUpdate = lastUpdate;
+        this.lastUpdate = toEpochSecond(lastUpdate);
         this.lastUpdatedBy = lastUpdatedBy;
         this.divisionId = divisionId;
     }
@@ -83,9 +94,17 @@ public class Customer {
     }
 
     /**
-     * @return The date the customer was created.
+     * @return The date and time the customer was created, or null if it is not known.
+     */
+    public LocalDateTime getCreateDate() {
+        return toDateTime(createDate);
+    }
+
+    /**
+     * @return The creation time in epoch seconds of its stored (UTC) value, or {@link Long#MIN_VALUE} if it is
+     * not known, so unknown times sort first.
      */
-    public String getCreateDate() {
+    public long getCreateDateEpochSecond() {
         return createDate;
     }
 
@@ -97,9 +116,17 @@ public class Customer {
     }
 
     /**
-     * @return The date of the last update for the customer.
+     * @return The date and time of the last update for the customer, or null if it is not known.
      */
-    public String getLastUpdate() {
+    public LocalDateTime getLastUpdate() {
+        return toDateTime(lastUpdate);
+    }
+
+    /**
+     * @return The last update time in epoch seconds of its stored (UTC) value, or {@link Long#MIN_VALUE} if it
+     * is not known, so unknown times sort first.
+     */
+    public long getLastUpdateEpochSecond() {
         return lastUpdate;
     }
 
@@ -117,6 +144,20 @@ public class Customer {
         return divisionId;
     }
 
+    /**
+     * @return The name of the division (state/province) the customer is in.
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * @return The name of the country the customer is in.
+     */
+    public String getCountry() {
+        return country;
+    }
+
     // Setters
 
     /**
@@ -167,10 +208,10 @@ public class Customer {
     /**
      * Sets the date the customer was created.
      *
-     * @param createDate The creation date to set.
+     * @param createDate The creation date and time to set, or null if it is not known.
      */
-    public void setCreateDate(String createDate) {
-        this.createDate = createDate;
+    public void setCreateDate(LocalDateTime createDate) {
+        this.createDate = toEpochSecond(createDate);
     }
 
     /**
@@ -185,10 +226,10 @@ public class Customer {
     /**
      * Sets the date of the last update for the customer.
      *
-     * @param lastUpdate The last update date to set.
+     * @param lastUpdate The last update date and time to set, or null if it is not known.
      */
-    public void setLastUpdate(String lastUpdate) {
-        this.lastUpdate = lastUpdate;
+    public void setLastUpdate(LocalDateTime lastUpdate) {
+        this.lastUpdate = toEpochSecond(lastUpdate);
     }
 
     /**
@@ -208,4 +249,38 @@ public class Customer {
     public void setDivisionId(int divisionId) {
         this.divisionId = divisionId;
     }
+
+    /**
+     * Sets the name of the division (state/province) the customer is in.
+     *
+     * @param state The division name to set.
+     */
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    /**
+     * Sets the name of the country the customer is in.
+     *
+     * @param country The country name to set.
+     */
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    /**
+     * @param dateTime a date and time, or null.
+     * @return its epoch second at UTC, or {@link #NO_TIME} for null.
+     */
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? NO_TIME : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * @param epochSecond an epoch second at UTC, or {@link #NO_TIME}.
+     * @return the date and time, or null for {@link #NO_TIME}.
+     */
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
 }